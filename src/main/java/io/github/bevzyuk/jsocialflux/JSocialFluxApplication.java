@@ -1,5 +1,8 @@
 package io.github.bevzyuk.jsocialflux;
 
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.config.RealtimeProperties;
 import io.github.bevzyuk.jsocialflux.infrastructure.security.SeedAdminProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -7,7 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(SeedAdminProperties.class)
+@EnableConfigurationProperties({SeedAdminProperties.class, FeedProperties.class, ChatProperties.class, RealtimeProperties.class})
 public class JSocialFluxApplication {
 
     public static void main(String[] args) {
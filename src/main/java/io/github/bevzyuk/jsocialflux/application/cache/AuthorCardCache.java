@@ -0,0 +1,79 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Картки авторів (id → username, avatar) для всіх читань, які повертають лише user_id.
+ * Промахи сторінки добираються одним запитом {@code id = ANY(...)}; зміна профілю скидає картку на всіх вузлах.
+ */
+@Component
+public class AuthorCardCache extends InvalidatingCache<UserLiteRec> {
+
+    static final String CHANNEL = "author:card:invalidate";
+
+    private static final long MAX_CARDS = 100_000;
+    private static final Duration TTL = Duration.ofMinutes(30);
+    private static final int HYDRATE_BATCH = 64;
+    private static final Duration HYDRATE_WINDOW = Duration.ofMillis(10);
+
+    private final UserRepository userRepository;
+
+    public AuthorCardCache(UserRepository userRepository,
+                           ReactiveStringRedisTemplate redis,
+                           ReactiveRedisMessageListenerContainer container,
+                           MeterRegistry meterRegistry) {
+        super("author.cards", CHANNEL, MAX_CARDS, TTL, redis, container, meterRegistry);
+        this.userRepository = userRepository;
+    }
+
+    public Mono<Map<Long, UserLiteRec>> resolve(Collection<Long> ids) {
+        return getAll(ids, missing -> userRepository.findLiteByIds(missing.toArray(Long[]::new)), UserLiteRec::id);
+    }
+
+    public Mono<UserLiteRec> find(Long id) {
+        return resolve(List.of(id)).mapNotNull(byId -> byId.get(id));
+    }
+
+    /**
+     * Підставляє картку автора в кожен рядок, зберігаючи порядок. Рядок, чий автор має id, але вже не існує,
+     * відкидається, як це робив INNER JOIN. Рядок без автора ({@code authorOf == null}) лишається й отримує
+     * {@code null}: так приходять групові прев'ю і повідомлення видаленого користувача (sender_id ON DELETE SET NULL),
+     * тож {@code build} має це враховувати. Рядки йдуть пачками до {@value #HYDRATE_BATCH} або {@code HYDRATE_WINDOW}.
+     */
+    public <R, T> Flux<T> hydrate(Flux<R> rows, Function<R, Long> authorOf, BiFunction<R, UserLiteRec, T> build) {
+        return rows.bufferTimeout(HYDRATE_BATCH, HYDRATE_WINDOW)
+                .concatMap(batch -> resolve(batch.stream().map(authorOf).filter(Objects::nonNull).toList())
+                        .flatMapIterable(byId -> batch.stream()
+                                .filter(r -> authorOf.apply(r) == null || byId.containsKey(authorOf.apply(r)))
+                                .map(r -> build.apply(r, authorOf.apply(r) == null ? null : byId.get(authorOf.apply(r))))
+                                .toList()));
+    }
+
+    /**
+     * Те саме для потокових відповідей: рядок іде далі, щойно знайдено його автора, без очікування пачки.
+     * Промах добирається окремо; одночасні промахи по одному автору чекають одне читання.
+     */
+    public <R, T> Flux<T> hydrateEach(Flux<R> rows, Function<R, Long> authorOf, BiFunction<R, UserLiteRec, T> build) {
+        return rows.flatMapSequential(r -> {
+            final Long authorId = authorOf.apply(r);
+            return authorId == null
+                    ? Mono.fromSupplier(() -> build.apply(r, null))
+                    : find(authorId).map(author -> build.apply(r, author));
+        });
+    }
+}
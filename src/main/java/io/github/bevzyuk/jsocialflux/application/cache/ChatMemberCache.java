@@ -0,0 +1,73 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.ChatRepository;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatMembersRec;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Метадані чату та склад учасників для шляху відправки: перевірка членства і розсилка прев'ю
+ * без звернень до БД. Учасники зберігаються відсортованим {@code long[]}.
+ * Зміна складу чи метаданих скидає запис на всіх вузлах.
+ */
+@Component
+public class ChatMemberCache extends InvalidatingCache<ChatMemberCache.ChatCard> {
+
+    static final String CHANNEL = "chat:members:invalidate";
+
+    private static final long MAX_CHATS = 50_000;
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    private final ChatRepository chatRepository;
+
+    public ChatMemberCache(ChatRepository chatRepository,
+                           ReactiveStringRedisTemplate redis,
+                           ReactiveRedisMessageListenerContainer container,
+                           MeterRegistry meterRegistry) {
+        super("chat.members", CHANNEL, MAX_CHATS, TTL, redis, container, meterRegistry);
+        this.chatRepository = chatRepository;
+    }
+
+    public Mono<ChatCard> find(Long chatId) {
+        return get(chatId, id -> chatRepository.findMembers(id).map(ChatCard::of));
+    }
+
+    public Mono<Boolean> isMember(Long chatId, Long userId) {
+        return find(chatId)
+                .map(card -> card.isMember(userId))
+                .defaultIfEmpty(false);
+    }
+
+    public record ChatCard(boolean group, String name, String avatar, long[] memberIds) {
+
+        static ChatCard of(ChatMembersRec r) {
+            final long[] ids = r.memberIds() == null ? new long[0]
+                    : Arrays.stream(r.memberIds()).mapToLong(Long::longValue).toArray();
+            Arrays.sort(ids);
+            return new ChatCard(Boolean.TRUE.equals(r.isGroup()), r.name(), r.avatar(), ids);
+        }
+
+        public boolean isMember(long userId) {
+            return Arrays.binarySearch(memberIds, userId) >= 0;
+        }
+
+        public List<Long> members() {
+            return Arrays.stream(memberIds).boxed().toList();
+        }
+
+        /** Співрозмовник у приватному чаті. */
+        public Long otherThan(long userId) {
+            for (long id : memberIds) {
+                if (id != userId) return id;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed.FeedPageEngine;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Найновіші {@code app.feed.head-size} рядків глобальної стрічки в пам'яті вузла, без карток авторів:
+ * їх підставляє читач з {@link AuthorCardCache}, тож зміна профілю вікна не зачіпає.
+ * Створення, редагування й видалення розсилаються через Redis pub/sub і застосовуються до вікна на місці,
+ * по черзі, в порядку публікації; скидається вікно лише тоді, коли видалення його надто спустошили.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedHeadCache {
+
+    static final String CHANNEL = "feed:head:patch";
+
+    private static final Comparator<FeedItemRow> ROW_ORDER = Comparator
+            .comparingLong((FeedItemRow r) -> r.createdAt().toEpochMilli())
+            .thenComparingInt(r -> FeedItemDTO.FeedType.POST.name().equals(r.feedType()) ? 2 : 1)
+            .thenComparingLong(FeedItemRow::id)
+            .reversed();
+
+    private final FeedPageEngine engine;
+    private final FeedRepository repo;
+    private final FeedProperties props;
+    private final ReactiveStringRedisTemplate redis;
+    private final ReactiveRedisMessageListenerContainer container;
+
+    /** Вікно та завантаження змінюються під цим замком; generation відсікає завантаження, що почались до патча. */
+    private final Object lock = new Object();
+    private Head head;
+    private Mono<Head> loading;
+    private long generation;
+
+    private Disposable patches;
+
+    /** Рядки у порядку стрічки; {@code complete} — у вікні вся стрічка. */
+    public record Head(List<FeedItemRow> rows, boolean complete) {}
+
+    @PostConstruct
+    void listen() {
+        patches = container.receive(ChannelTopic.of(CHANNEL))
+                .concatMap(m -> apply(m.getMessage()).onErrorResume(e -> Mono.fromRunnable(this::reset)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (patches != null) patches.dispose();
+    }
+
+    /** Завантажує вікно, якщо його ще немає. */
+    public Mono<Head> window() {
+        final long gen;
+        synchronized (lock) {
+            if (head != null) return Mono.just(head);
+            if (loading != null) return loading;
+            gen = generation;
+        }
+
+        final Mono<Head> load = engine.page(null, 0, 0L, props.headSize())
+                .collectList()
+                .map(list -> new Head(List.copyOf(list), list.size() < props.headSize()))
+                .cache();
+        synchronized (lock) {
+            if (loading != null) return loading;
+            loading = load;
+        }
+        return load
+                .doOnNext(h -> {
+                    synchronized (lock) {
+                        if (generation == gen) head = h;
+                    }
+                })
+                .doFinally(sig -> {
+                    synchronized (lock) {
+                        if (loading == load) loading = null;
+                    }
+                });
+    }
+
+    /** Уже завантажене вікно або null; глибокі сторінки не мають платити за його завантаження. */
+    @Nullable
+    public Head loaded() {
+        synchronized (lock) {
+            return head;
+        }
+    }
+
+    public void itemSaved(FeedItemDTO.FeedType type, long id) {
+        publish("S:" + type.name() + ":" + id);
+    }
+
+    public void itemDeleted(FeedItemDTO.FeedType type, long id) {
+        publish("D:" + type.name() + ":" + id);
+    }
+
+    /** Якщо Redis недоступний, інші вузли патч не отримають, тож хоча б цей не лишається зі старим вікном. */
+    private void publish(String patch) {
+        redis.convertAndSend(CHANNEL, patch)
+                .onErrorResume(e -> Mono.fromRunnable(this::reset))
+                .subscribe();
+    }
+
+    private Mono<Void> apply(String patch) {
+        final String[] parts = patch.split(":");
+        final FeedItemDTO.FeedType type = FeedItemDTO.FeedType.valueOf(parts[1]);
+        final long id = Long.parseLong(parts[2]);
+
+        if ("D".equals(parts[0])) {
+            patch(items -> remove(items, type, id));
+            return Mono.empty();
+        }
+        synchronized (lock) {
+            if (head == null && loading == null) return Mono.empty();
+        }
+        final Long[] postIds  = type == FeedItemDTO.FeedType.POST  ? new Long[]{id} : new Long[0];
+        final Long[] photoIds = type == FeedItemDTO.FeedType.PHOTO ? new Long[]{id} : new Long[0];
+        return repo.findByKeys(postIds, photoIds)
+                .next()
+                .doOnNext(fresh -> patch(items -> {
+                    remove(items, type, id);
+                    insert(items, fresh);
+                }))
+                .switchIfEmpty(Mono.fromRunnable(() -> patch(items -> remove(items, type, id))))
+                .then();
+    }
+
+    private void patch(Consumer<List<FeedItemRow>> change) {
+        synchronized (lock) {
+            generation++;
+            loading = null;
+            if (head == null) return;
+
+            final List<FeedItemRow> items = new ArrayList<>(head.rows());
+            change.accept(items);
+            boolean complete = head.complete();
+            if (items.size() > props.headSize()) {
+                items.subList(props.headSize(), items.size()).clear();
+                complete = false;
+            }
+            head = (!complete && items.size() < props.headSize() / 2) ? null : new Head(List.copyOf(items), complete);
+        }
+    }
+
+    /** Елемент, що за порядком нижчий за хвіст неповного вікна, до вікна не належить. */
+    private void insert(List<FeedItemRow> items, FeedItemRow fresh) {
+        int at = 0;
+        while (at < items.size() && ROW_ORDER.compare(items.get(at), fresh) < 0) at++;
+        if (at == items.size() && !head.complete()) return;
+        items.add(at, fresh);
+    }
+
+    private static void remove(List<FeedItemRow> items, FeedItemDTO.FeedType type, long id) {
+        items.removeIf(r -> type.name().equals(r.feedType()) && r.id() == id);
+    }
+
+    private void reset() {
+        synchronized (lock) {
+            generation++;
+            loading = null;
+            head = null;
+        }
+    }
+}
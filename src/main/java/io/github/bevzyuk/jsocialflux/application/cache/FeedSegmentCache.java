@@ -0,0 +1,181 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedRowPage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Глибокі сторінки глобальної стрічки, ключ — межа курсора та розмір сторінки. Зберігаються рядки без карток
+ * авторів (їх підставляє читач з {@link AuthorCardCache}), тож зміна профілю сегментів не зачіпає.
+ * Нові елементи завжди потрапляють на початок стрічки, тож сегмент за курсором не змінюється,
+ * крім видалень і редагувань: їх застосовуємо до закешованих сегментів, а не скидаємо їх.
+ * Зворотний індекс (елемент → сегменти) дає змінити лише сегменти з цим елементом, без перебору всього кешу;
+ * він оновлюється атомарно разом із записом сегмента і при витісненні.
+ * Метрики: cache.gets{cache=feed.segments,result=hit|miss}, cache.size, cache.evictions.
+ */
+@Component
+public class FeedSegmentCache {
+
+    static final String CHANNEL = "feed:segment:patch";
+
+    private final FeedRepository repo;
+    private final ReactiveStringRedisTemplate redis;
+    private final ReactiveRedisMessageListenerContainer container;
+    private final Cache<SegmentKey, FeedRowPage> segments;
+    private final Map<ItemKey, Set<SegmentKey>> index = new ConcurrentHashMap<>();
+
+    private Disposable patches;
+
+    public FeedSegmentCache(FeedRepository repo,
+                            ReactiveStringRedisTemplate redis,
+                            ReactiveRedisMessageListenerContainer container,
+                            FeedProperties props,
+                            MeterRegistry meterRegistry) {
+        this.repo = repo;
+        this.redis = redis;
+        this.container = container;
+        this.segments = Caffeine.newBuilder()
+                .maximumSize(props.segmentMax())
+                .expireAfterWrite(props.segmentTtl())
+                .evictionListener((SegmentKey k, FeedRowPage s, RemovalCause cause) -> unindex(k, s))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, segments, "feed.segments");
+    }
+
+    @PostConstruct
+    void listen() {
+        patches = container.receive(ChannelTopic.of(CHANNEL))
+                .concatMap(m -> apply(m.getMessage()).onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (patches != null) patches.dispose();
+    }
+
+    @Nullable
+    public FeedRowPage find(long ts, int ord, long id, int size) {
+        return segments.getIfPresent(new SegmentKey(ts, ord, id, size));
+    }
+
+    public void put(long ts, int ord, long id, int size, FeedRowPage page) {
+        final FeedRowPage copy = new FeedRowPage(List.copyOf(page.rows()), page.hasNext(), page.nextCursor());
+        segments.asMap().compute(new SegmentKey(ts, ord, id, size), (k, old) -> {
+            if (old != null) unindex(k, old);
+            index(k, copy);
+            return copy;
+        });
+    }
+
+    public void itemDeleted(FeedItemDTO.FeedType type, long id) {
+        removeLocal(type, id);
+        publish("D:" + type.name() + ":" + id);
+    }
+
+    public void itemEdited(FeedItemDTO.FeedType type, long id) {
+        publish("E:" + type.name() + ":" + id);
+    }
+
+    private void publish(String patch) {
+        redis.convertAndSend(CHANNEL, patch)
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
+
+    private Mono<Void> apply(String patch) {
+        final String[] parts = patch.split(":");
+        final FeedItemDTO.FeedType type = FeedItemDTO.FeedType.valueOf(parts[1]);
+        final long id = Long.parseLong(parts[2]);
+
+        if ("D".equals(parts[0])) {
+            removeLocal(type, id);
+            return Mono.empty();
+        }
+        if (!index.containsKey(new ItemKey(type, id))) {
+            return Mono.empty();
+        }
+        final Long[] postIds  = type == FeedItemDTO.FeedType.POST  ? new Long[]{id} : new Long[0];
+        final Long[] photoIds = type == FeedItemDTO.FeedType.PHOTO ? new Long[]{id} : new Long[0];
+        return repo.findByKeys(postIds, photoIds)
+                .next()
+                .doOnNext(fresh -> replaceLocal(type, id, fresh))
+                .switchIfEmpty(Mono.fromRunnable(() -> removeLocal(type, id)))
+                .then();
+    }
+
+    private void removeLocal(FeedItemDTO.FeedType type, long id) {
+        final ItemKey item = new ItemKey(type, id);
+        final Set<SegmentKey> keys = index.remove(item);
+        if (keys == null) return;
+        for (SegmentKey key : keys) {
+            segments.asMap().computeIfPresent(key, (k, s) -> new FeedRowPage(
+                    s.rows().stream().filter(r -> !matches(r, type, id)).toList(),
+                    s.hasNext(),
+                    s.nextCursor()
+            ));
+        }
+    }
+
+    private void replaceLocal(FeedItemDTO.FeedType type, long id, FeedItemRow fresh) {
+        final Set<SegmentKey> keys = index.get(new ItemKey(type, id));
+        if (keys == null) return;
+        for (SegmentKey key : List.copyOf(keys)) {
+            segments.asMap().computeIfPresent(key, (k, s) -> new FeedRowPage(
+                    s.rows().stream().map(r -> matches(r, type, id) ? fresh : r).toList(),
+                    s.hasNext(),
+                    s.nextCursor()
+            ));
+        }
+    }
+
+    private void index(SegmentKey key, FeedRowPage s) {
+        for (FeedItemRow r : s.rows()) {
+            index.computeIfAbsent(ItemKey.of(r), i -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void unindex(SegmentKey key, FeedRowPage s) {
+        for (FeedItemRow r : s.rows()) {
+            index.computeIfPresent(ItemKey.of(r), (i, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static boolean matches(FeedItemRow r, FeedItemDTO.FeedType type, long id) {
+        return type.name().equals(r.feedType()) && r.id() == id;
+    }
+
+    private record SegmentKey(long ts, int ord, long id, int size) {}
+
+    private record ItemKey(FeedItemDTO.FeedType type, long id) {
+
+        static ItemKey of(FeedItemRow r) {
+            return new ItemKey(FeedItemDTO.FeedType.valueOf(r.feedType()), r.id());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Кеш за id у пам'яті вузла, який скидається на всіх вузлах через Redis pub/sub.
+ * Запис — це future завантаження: одночасні промахи чекають одне читання, а скидання прибирає
+ * й незавершене читання, тож воно вже не поверне в кеш старе значення. Відсутні в БД id не кешуються.
+ * Метрики: cache.gets{cache=<name>,result=hit|miss}, cache.size, cache.evictions.
+ */
+public abstract class InvalidatingCache<V> {
+
+    private final String channel;
+    private final ReactiveStringRedisTemplate redis;
+    private final ReactiveRedisMessageListenerContainer container;
+    private final AsyncCache<Long, V> cache;
+
+    private Disposable invalidations;
+
+    protected InvalidatingCache(String name,
+                                String channel,
+                                long maxSize,
+                                Duration ttl,
+                                ReactiveStringRedisTemplate redis,
+                                ReactiveRedisMessageListenerContainer container,
+                                MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.redis = redis;
+        this.container = container;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    @PostConstruct
+    void listen() {
+        invalidations = container.receive(ChannelTopic.of(channel))
+                .doOnNext(m -> cache.synchronous().invalidate(Long.parseLong(m.getMessage())))
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (invalidations != null) invalidations.dispose();
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+        redis.convertAndSend(channel, String.valueOf(id))
+                .onErrorResume(e -> Mono.empty())
+                .subscribe();
+    }
+
+    protected Mono<V> get(Long id, Function<Long, Mono<V>> load) {
+        return Mono.fromFuture(cache.get(id, (k, executor) -> load.apply(k).toFuture()), true);
+    }
+
+    /** Промахи добираються одним викликом {@code load}; у відповіді лише знайдені id. */
+    protected Mono<Map<Long, V>> getAll(Collection<Long> ids, Function<Set<Long>, Flux<V>> load, Function<V, Long> idOf) {
+        final Set<Long> wanted = new HashSet<>(ids);
+        wanted.remove(null);
+
+        final Map<Long, V> present = cache.synchronous().getAllPresent(wanted);
+        if (present.size() == wanted.size()) return Mono.just(present);
+
+        return Mono.fromFuture(cache.getAll(wanted, (missing, executor) -> load.apply(Set.copyOf(missing))
+                .collectMap(idOf)
+                .toFuture()), true);
+    }
+}
@@ -1,8 +1,8 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.ChatMemberCache;
 import io.github.bevzyuk.jsocialflux.domain.user.Role;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
-import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.ChatRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -15,7 +15,7 @@ import reactor.core.publisher.Mono;
 public class AccessControlService {
 
     private final UserRepository userRepository;
-    private final ChatRepository chatRepository;
+    private final ChatMemberCache chatMembers;
 
     public boolean canEditUser(User target, User current) {
         return current != null &&
@@ -46,7 +46,7 @@ public class AccessControlService {
     public Mono<Void> assertChatParticipant(Long chatId, String currentUsername) {
         return userRepository.findByUsername(currentUsername)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Користувача не знайдено")))
-                .flatMap(u -> chatRepository.isParticipant(chatId, u.getId())
+                .flatMap(u -> chatMembers.isMember(chatId, u.getId())
                         .flatMap(ok -> ok ? Mono.empty()
                                 : Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату"))));
     }
@@ -60,6 +60,13 @@ public class AccessControlService {
             String owner = channel.substring("user:".length(), channel.length() - ":preview".length());
             return assertUserPreviewOwner(currentUsername, owner);
         }
+        if (channel.equals("feed")) {
+            return Mono.empty();
+        }
+        if (channel.startsWith("user:") && channel.endsWith(":feed")) {
+            String owner = channel.substring("user:".length(), channel.length() - ":feed".length());
+            return assertUserPreviewOwner(currentUsername, owner);
+        }
 
         return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Невідомий канал"));
     }
@@ -1,5 +1,8 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
+import io.github.bevzyuk.jsocialflux.application.cache.ChatMemberCache;
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
 import io.github.bevzyuk.jsocialflux.config.ws.RealtimeEvents;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.ChatRepository;
@@ -9,6 +12,12 @@ import io.github.bevzyuk.jsocialflux.web.dto.chat.request.CreateGroupChatRequest
 import io.github.bevzyuk.jsocialflux.web.dto.chat.request.StartPrivateChatRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatOpenDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatSlice;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.response.SyncFrame;
+import io.github.bevzyuk.jsocialflux.web.mapper.ChatPreviewMapper;
+import io.github.bevzyuk.jsocialflux.web.mapper.MessageMapper;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatSyncRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -18,26 +27,41 @@ import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ChatService {
 
+    private static final Duration SYNC_GRACE = Duration.ofSeconds(5);
+    private static final int MAX_SYNC_MESSAGES = 2_000;
+
     private final ChatRepository chatRepository;
     private final UserRepository userRepository;
     private final TransactionalOperator tx;
     private final RealtimeEvents events;
+    private final AuthorCardCache authorCards;
+    private final ChatMemberCache chatMembers;
+    private final ChatPreviewMapper chatPreviewMapper;
+    private final MessageMapper messageMapper;
+    private final ChatProperties props;
 
-    public Mono<ChatSlice> listForUserSlice(String currentUsername, Long cursorEpochMs, Long cursorId, int size) {
+    public Mono<ChatSlice> listForUserSlice(Long currentUserId, Long cursorEpochMs, Long cursorId, int size) {
         int limit = Math.max(1, Math.min(size, 100));
         Instant cursorTime = (cursorEpochMs == null) ? Instant.now() : Instant.ofEpochMilli(cursorEpochMs);
         Long curId = (cursorId == null) ? Long.MAX_VALUE : cursorId;
 
-        return chatRepository.findChatViewsForUserSlice(currentUsername, cursorTime, curId, limit + 1)
+        return authorCards.hydrate(
+                        chatRepository.findChatPreviewsForUserSlice(currentUserId, cursorTime, curId, limit + 1),
+                        r -> Boolean.TRUE.equals(r.isGroup()) ? null : r.otherUserId(),
+                        chatPreviewMapper::toPreview)
                 .collectList()
                 .map(list -> {
                     boolean hasNext = list.size() > limit;
@@ -49,6 +73,66 @@ public class ChatService {
                 });
     }
 
+    /**
+     * Зміни в усіх чатах користувача після {@code syncToken} ("id.epochMs"; без токена — від поточного моменту).
+     * Водяний знак рухається лише по повідомленнях, старших за {@link #SYNC_GRACE}, тож запис, що ще не
+     * закомітився, прийде наступного разу; клієнт відкидає дублікати за id.
+     * Якщо сторінка повна ({@code complete=false}), знак стає на останнє віддане повідомлення, навіть свіже:
+     * інакше при понад {@link #MAX_SYNC_MESSAGES} повідомленнях у межах {@link #SYNC_GRACE} клієнт отримував би
+     * ту саму сторінку без кінця.
+     * Видалення приходять надгробками з часом видалення не раніше за знак; надгробки зберігаються
+     * {@code app.chat.tombstone-retention}, тож старіший токен отримує 410 і клієнт перезавантажує чати повністю.
+     */
+    public Flux<SyncFrame> syncSince(Long userId, String syncToken) {
+        return Flux.defer(() -> {
+            final Instant now = Instant.now();
+            final long[] since = parseSyncToken(syncToken, now);
+            if (since[1] < now.minus(props.tombstoneRetention()).toEpochMilli()) {
+                return Flux.error(new ResponseStatusException(HttpStatus.GONE,
+                        "syncToken застарів: видалення за цей період уже не зберігаються, потрібне повне перезавантаження"));
+            }
+            final Instant settled = now.minus(SYNC_GRACE);
+            final AtomicInteger messages = new AtomicInteger();
+            final AtomicLong watermarkId = new AtomicLong(since[0]);
+            final AtomicLong lastId = new AtomicLong(since[0]);
+            final AtomicLong lastMs = new AtomicLong(since[1]);
+
+            Flux<ChatSyncRec> rows = chatRepository.findChangesSince(userId, since[0],
+                            Instant.ofEpochMilli(since[1]).minus(SYNC_GRACE), MAX_SYNC_MESSAGES + 1)
+                    .filter(r -> !r.isMessage() || messages.incrementAndGet() <= MAX_SYNC_MESSAGES)
+                    .doOnNext(r -> {
+                        if (!r.isMessage()) return;
+                        lastId.set(r.id());
+                        lastMs.set(r.sentAt().toEpochMilli());
+                        if (!r.sentAt().isAfter(settled) && r.id() > watermarkId.get()) {
+                            watermarkId.set(r.id());
+                        }
+                    });
+
+            return authorCards.hydrate(rows, ChatSyncRec::userId, (r, user) -> r.isPreview()
+                            ? SyncFrame.preview(chatPreviewMapper.toPreview(r.preview(), user))
+                            : r.isMessage()
+                            ? SyncFrame.message(messageMapper.toDto(r.message(), user))
+                            : SyncFrame.deleted(r.chatId(), r.id()))
+                    .concatWith(Mono.fromSupplier(() -> {
+                        boolean complete = messages.get() <= MAX_SYNC_MESSAGES;
+                        return complete
+                                ? SyncFrame.end(watermarkId.get() + "." + settled.toEpochMilli(), true)
+                                : SyncFrame.end(lastId.get() + "." + lastMs.get(), false);
+                    }));
+        });
+    }
+
+    private static long[] parseSyncToken(String token, Instant now) {
+        if (!StringUtils.hasText(token)) return new long[]{0L, now.toEpochMilli()};
+        int dot = token.indexOf('.');
+        try {
+            return new long[]{Long.parseLong(token.substring(0, dot)), Long.parseLong(token.substring(dot + 1))};
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Некоректний syncToken");
+        }
+    }
+
     public Mono<ChatOpenDTO> startPrivate(String currentUsername, StartPrivateChatRequest req) {
         final String otherUsername = (req == null) ? null : req.username();
         if (!StringUtils.hasText(otherUsername)) {
@@ -78,7 +162,8 @@ public class ChatService {
                                                     new ChatOpenDTO(chatId, other.getUsername(), other.getAvatar())
                                             ))
                             );
-                    return tx.transactional(work);
+                    return tx.transactional(work)
+                            .doOnNext(open -> chatMembers.invalidate(open.chatId()));
                 });
     }
 
@@ -115,32 +200,76 @@ public class ChatService {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "У групі має бути щонайменше 3 учасники"));
         }
 
-        Mono<ChatOpenDTO> work = Flux.fromIterable(uniq)
-                .flatMap(userRepository::findByUsername)
+        String[] names = uniq.toArray(String[]::new);
+
+        Mono<ChatOpenDTO> work = userRepository.findLiteByUsernames(names)
+                .map(UserLiteRec::id)
                 .collectList()
-                .flatMap(users -> {
-                    if (users.size() != uniq.size()) {
+                .flatMap(ids -> {
+                    if (ids.size() != uniq.size()) {
                         return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Деяких користувачів не знайдено"));
                     }
 
                     return chatRepository.insertGroupReturnId(name)
+                            .flatMap(chatId -> chatRepository.addParticipants(chatId, ids.toArray(Long[]::new))
+                                    .then(Mono.just(new ChatOpenDTO(chatId, null, null))));
+                });
 
-                            .flatMap(chatId ->
-                                    Flux.fromIterable(users)
-                                            .flatMap(u -> chatRepository.addParticipant(chatId, u.getId()))
-                                            .then(Mono.just(chatId))
-                            )
-
-                            .flatMap(chatId ->
-                                    Flux.fromIterable(uniq)
-                                            .flatMap(username ->
-                                                    chatRepository.findChatViewForUserById(chatId, username)
-                                                            .flatMap(view -> events.userChatPreview(username, view))
-                                            )
-                                            .then(Mono.just(new ChatOpenDTO(chatId, null, null)))
-                            );
+        return tx.transactional(work)
+                .flatMap(open -> {
+                    chatMembers.invalidate(open.chatId());
+                    ChatViewDTO view = chatPreviewMapper.toGroupPreview(open.chatId(), name, null, null, Instant.now());
+                    return events.groupChatPreview(uniq, view).thenReturn(open);
                 });
+    }
+
+    public Mono<Void> addParticipants(Long chatId, User actor, AddParticipantsRequest req) {
+        List<String> raw = (req == null || req.usernames() == null)
+                ? List.of()
+                : req.usernames().stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .distinct()
+                .toList();
+
+        if (raw.isEmpty()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Список користувачів порожній"));
+        }
+
+        return chatMembers.find(chatId)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Чат не знайдено")))
+                .flatMap(card -> {
+                    if (!card.isMember(actor.getId())) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату"));
+                    }
+                    if (!card.group()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Додавати учасників можна лише до групи"));
+                    }
 
-        return tx.transactional(work);
+                    return userRepository.findLiteByUsernames(raw.toArray(String[]::new))
+                            .collectList()
+                            .flatMap(users -> {
+                                if (users.size() != raw.size()) {
+                                    return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Деяких користувачів не знайдено"));
+                                }
+                                Long[] ids = users.stream().map(UserLiteRec::id).toArray(Long[]::new);
+                                return chatRepository.addParticipants(chatId, ids)
+                                        .collect(Collectors.toSet())
+                                        .map(added -> users.stream()
+                                                .filter(u -> added.contains(u.id()))
+                                                .map(UserLiteRec::username)
+                                                .toList());
+                            });
+                })
+                .flatMap(addedNames -> {
+                    if (addedNames.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    chatMembers.invalidate(chatId);
+                    return chatRepository.findChatPreviewForUserById(chatId, actor.getUsername())
+                            .flatMap(r -> events.groupChatPreview(addedNames,
+                                    chatPreviewMapper.toGroupPreview(chatId, r.groupName(), r.groupAvatar(),
+                                            r.lastMessage(), r.lastSentAt())));
+                });
     }
 }
@@ -1,53 +1,284 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
+import io.github.bevzyuk.jsocialflux.application.cache.FeedHeadCache;
+import io.github.bevzyuk.jsocialflux.application.cache.FeedSegmentCache;
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.TimelineRepository;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed.FeedPageEngine;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedCursor;
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedRowPage;
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedSlice;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedSlice;
 import io.github.bevzyuk.jsocialflux.web.mapper.FeedItemMapper;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class FeedService {
 
     private final FeedRepository repo;
+    private final FeedPageEngine engine;
     private final FeedItemMapper mapper;
+    private final TimelineRepository timelineRepository;
+    private final UserRepository userRepository;
+    private final FeedProperties props;
+    private final FeedHeadCache headCache;
+    private final FeedSegmentCache segmentCache;
+    private final AuthorCardCache authorCards;
+
+    private static final Comparator<FeedItemDTO> ITEM_ORDER = Comparator
+            .comparingLong((FeedItemDTO d) -> d.getCreatedAt().toEpochMilli())
+            .thenComparingInt(d -> feedOrder(d.getType().name()))
+            .thenComparingLong(FeedItemDTO::getId)
+            .reversed();
 
 
     public Mono<FeedSlice> getFeedSlice(@Nullable FeedCursor cursor, int size) {
         final Instant ts   = (cursor == null || cursor.ts() == null) ? null : Instant.ofEpochMilli(cursor.ts());
-        final Integer ord  = (cursor == null || cursor.type() == null) ? null : feedOrder(cursor.type());
-        final Long id      = (cursor == null) ? null : cursor.id();
+        final int ord      = (cursor == null || cursor.type() == null) ? 0 : feedOrder(cursor.type());
+        final long id      = (cursor == null || cursor.id() == null) ? 0L : cursor.id();
+
+        return cachedPage(ts, ord, id, size)
+                .switchIfEmpty(Mono.defer(() -> engine.page(ts, ord, id, size + 1)
+                        .collectList()
+                        .map(rows -> FeedRowPage.of(rows, size))
+                        .doOnNext(page -> {
+                            if (ts != null) segmentCache.put(ts.toEpochMilli(), ord, id, size, page);
+                        })))
+                .flatMap(page -> items(Flux.fromIterable(page.rows()))
+                        .collectList()
+                        .map(items -> new FeedSlice(items, page.hasNext(), page.nextCursor())));
+    }
+
+    public Flux<SliceFrame<FeedItemDTO>> streamFeed(@Nullable FeedCursor cursor, int size) {
+        final Instant ts   = (cursor == null || cursor.ts() == null) ? null : Instant.ofEpochMilli(cursor.ts());
+        final int ord      = (cursor == null || cursor.type() == null) ? 0 : feedOrder(cursor.type());
+        final long id      = (cursor == null || cursor.id() == null) ? 0L : cursor.id();
+
+        return cachedPage(ts, ord, id, size)
+                .flatMapMany(page -> authorCards.hydrateEach(Flux.fromIterable(page.rows()), FeedItemRow::userId, mapper::toDTO)
+                        .map(SliceFrame::<FeedItemDTO>item)
+                        .concatWith(Mono.just(SliceFrame.<FeedItemDTO>end(page.hasNext(), page.nextCursor()))))
+                .switchIfEmpty(Flux.defer(() -> {
+                    final List<FeedItemRow> rows = new ArrayList<>();
+                    return SliceFrame.stream(authorCards.hydrateEach(engine.page(ts, ord, id, size + 1).doOnNext(rows::add),
+                                    FeedItemRow::userId, mapper::toDTO), size, FeedService::cursorOf)
+                            .doOnComplete(() -> {
+                                if (ts != null) segmentCache.put(ts.toEpochMilli(), ord, id, size, FeedRowPage.of(rows, size));
+                            });
+                }));
+    }
+
+    /**
+     * Сторінка з вікна найновіших рядків або з кешу сегментів; порожньо, якщо треба йти в БД.
+     * Вікно завантажується лише для першої сторінки, глибші беруть його, тільки якщо воно вже в пам'яті.
+     * Автори підставляються вже після кешу, тож кешовані рядки не застарівають після зміни профілю.
+     */
+    private Mono<FeedRowPage> cachedPage(@Nullable Instant ts, int ord, long id, int size) {
+        if (ts == null) {
+            return headCache.window()
+                    .mapNotNull(head -> fromWindow(head, null, ord, id, size + 1))
+                    .map(rows -> FeedRowPage.of(rows, size));
+        }
+        final FeedHeadCache.Head loaded = headCache.loaded();
+        final List<FeedItemRow> head = (loaded == null) ? null : fromWindow(loaded, ts, ord, id, size + 1);
+        if (head != null) return Mono.just(FeedRowPage.of(head, size));
+        return Mono.justOrEmpty(segmentCache.find(ts.toEpochMilli(), ord, id, size));
+    }
+
+    /** Сторінка з вікна найновіших рядків або null, якщо вікно її не покриває. */
+    @Nullable
+    private List<FeedItemRow> fromWindow(FeedHeadCache.Head head, @Nullable Instant ts, int ord, long id, int limit) {
+        final List<FeedItemRow> window = head.rows();
+        int from = 0;
+        if (ts != null) {
+            final long tsMs = ts.toEpochMilli();
+            // курсор не новіший за хвіст неповного вікна: сторінка точно за його межами
+            if (!head.complete() && (window.isEmpty() || !isBefore(window.get(window.size() - 1), tsMs, ord, id))) {
+                return null;
+            }
+            while (from < window.size() && !isBefore(window.get(from), tsMs, ord, id)) from++;
+        }
+        if (!head.complete() && from + limit > window.size()) return null;
+
+        return window.subList(from, Math.min(from + limit, window.size()));
+    }
 
-        return repo.findPage(ts, ord, id, size + 1)
-                .map(mapper::toDTO)
+    /** (createdAt, order, id) рядка строго менше за курсор. */
+    private static boolean isBefore(FeedItemRow r, long tsMs, int ord, long id) {
+        final long ms = r.createdAt().toEpochMilli();
+        if (ms != tsMs) return ms < tsMs;
+        final int o = feedOrder(r.feedType());
+        if (o != ord) return o < ord;
+        return r.id() < id;
+    }
+
+    public Mono<FeedSlice> getFollowingSlice(Long userId, @Nullable FeedCursor cursor, int size) {
+        return followingItems(userId, cursor, size)
+                .take(size + 1)
+                .collectList()
+                .map(list -> toSlice(list, size));
+    }
+
+    public Flux<SliceFrame<FeedItemDTO>> streamFollowing(Long userId, @Nullable FeedCursor cursor, int size) {
+        return SliceFrame.stream(followingItems(userId, cursor, size), size, FeedService::cursorOf);
+    }
+
+    /** Режим "top": сторінка з індексу rank_score, оцінки підтримуються тригерами на коментарях. */
+    public Mono<TopFeedSlice> getTopSlice(@Nullable TopFeedCursor cursor, int size) {
+        final Flux<TopFeedItemRow> rows = (cursor == null || cursor.score() == null)
+                ? repo.findTopFirstPage(size + 1)
+                : repo.findTopPageBefore(
+                        cursor.score(),
+                        cursor.type() == null ? 0 : feedOrder(cursor.type()),
+                        cursor.id() == null ? 0L : cursor.id(),
+                        size + 1);
+
+        return authorCards.hydrate(rows, TopFeedItemRow::userId, (r, author) -> new Ranked(mapper.toDTO(r, author), r.rankScore()))
                 .collectList()
                 .map(list -> {
                     final boolean hasNext = list.size() > size;
                     if (hasNext) list.remove(size);
 
-                    FeedCursor next = null;
+                    TopFeedCursor next = null;
                     if (hasNext && !list.isEmpty()) {
-                        final FeedItemDTO last = list.get(list.size() - 1);
-                        next = new FeedCursor(
-                                last.getCreatedAt().toEpochMilli(),
-                                last.getType().name(),
-                                last.getId()
-                        );
+                        final Ranked last = list.get(list.size() - 1);
+                        next = new TopFeedCursor(last.score(), last.item().getType().name(), last.item().getId());
                     }
-                    return new FeedSlice(list, hasNext, next);
+                    return new TopFeedSlice(list.stream().map(Ranked::item).toList(), hasNext, next);
                 });
     }
 
+    @SuppressWarnings("unchecked")
+    private Flux<FeedItemDTO> followingItems(Long userId, @Nullable FeedCursor cursor, int size) {
+        final Flux<FeedItemDTO> pushed = pushedKeys(userId, cursor, size + 1)
+                .take(size + 1)
+                .collectList()
+                .flatMap(this::hydrate)
+                .flatMapIterable(items -> items);
+
+        final Flux<FeedItemDTO> pulled = userRepository
+                .findFollowedIdsWithFollowersAtLeast(userId, props.pullThreshold())
+                .collectList()
+                .flatMapMany(authors -> authors.isEmpty()
+                        ? Flux.<FeedItemDTO>empty()
+                        : Flux.mergeComparing(ITEM_ORDER, authors.stream()
+                                .map(a -> authorPage(a, cursor, size + 1))
+                                .toArray(Flux[]::new)));
+
+        return Flux.mergeComparing(ITEM_ORDER, pushed, pulled)
+                .distinct(dto -> TimelineRepository.member(dto.getType(), dto.getId()));
+    }
+
+    private Flux<FeedItemDTO> authorPage(long authorId, @Nullable FeedCursor cursor, int limit) {
+        final Flux<FeedItemRow> rows = (cursor == null || cursor.ts() == null)
+                ? repo.findFirstPageByAuthor(authorId, limit)
+                : repo.findPageByAuthorBefore(authorId,
+                        Instant.ofEpochMilli(cursor.ts()),
+                        cursor.type() == null ? 0 : feedOrder(cursor.type()),
+                        cursor.id() == null ? 0L : cursor.id(),
+                        limit);
+        // усі рядки одного автора: після першого це влучання в кеш, а злиття не чекає на пачку
+        return authorCards.hydrateEach(rows, FeedItemRow::userId, mapper::toDTO);
+    }
+
+    private Flux<TimelineKey> pushedKeys(Long userId, @Nullable FeedCursor cursor, int limit) {
+        if (cursor == null || cursor.ts() == null) {
+            return timelineRepository.findFirst(userId, limit).map(TimelineKey::of);
+        }
+        final TimelineKey after = new TimelineKey(
+                cursor.type() == null ? null : FeedItemDTO.FeedType.valueOf(cursor.type().toUpperCase()),
+                cursor.id() == null ? 0L : cursor.id(),
+                cursor.ts()
+        );
+        return Flux.concat(
+                timelineRepository.findAt(userId, after.ts())
+                        .map(TimelineKey::of)
+                        .filter(k -> TimelineKey.ORDER.compare(k, after) > 0)
+                        .sort(TimelineKey.ORDER),
+                timelineRepository.findBefore(userId, after.ts(), limit)
+                        .map(TimelineKey::of)
+        );
+    }
+
+    private Mono<List<FeedItemDTO>> hydrate(List<TimelineKey> keys) {
+        if (keys.isEmpty()) return Mono.just(List.of());
+
+        final Long[] postIds = keys.stream()
+                .filter(k -> k.type() == FeedItemDTO.FeedType.POST)
+                .map(TimelineKey::id)
+                .toArray(Long[]::new);
+        final Long[] photoIds = keys.stream()
+                .filter(k -> k.type() == FeedItemDTO.FeedType.PHOTO)
+                .map(TimelineKey::id)
+                .toArray(Long[]::new);
+
+        return items(repo.findByKeys(postIds, photoIds))
+                .collectMap(dto -> TimelineRepository.member(dto.getType(), dto.getId()))
+                .map(byKey -> keys.stream()
+                        .map(k -> byKey.get(TimelineRepository.member(k.type(), k.id())))
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    private Flux<FeedItemDTO> items(Flux<FeedItemRow> rows) {
+        return authorCards.hydrate(rows, FeedItemRow::userId, mapper::toDTO);
+    }
+
+    private static FeedSlice toSlice(List<FeedItemDTO> list, int size) {
+        final boolean hasNext = list.size() > size;
+        if (hasNext) list.remove(size);
+
+        final FeedCursor next = (hasNext && !list.isEmpty()) ? cursorOf(list.get(list.size() - 1)) : null;
+        return new FeedSlice(list, hasNext, next);
+    }
+
+    private static FeedCursor cursorOf(FeedItemDTO last) {
+        return new FeedCursor(last.getCreatedAt().toEpochMilli(), last.getType().name(), last.getId());
+    }
+
     private static int feedOrder(String type) {
         return "POST".equalsIgnoreCase(type) ? 2 : 1;
     }
-}
 
+    private record Ranked(FeedItemDTO item, double score) {}
+
+    private record TimelineKey(FeedItemDTO.FeedType type, long id, long ts) {
+
+        /** Порядок стрічки: новіші першими, при рівному часі POST перед PHOTO, далі більший id. */
+        static final Comparator<TimelineKey> ORDER = Comparator
+                .comparingLong(TimelineKey::ts)
+                .thenComparingInt(k -> k.type() == null ? 0 : feedOrder(k.type().name()))
+                .thenComparingLong(TimelineKey::id)
+                .reversed();
 
+        static TimelineKey of(TypedTuple<String> t) {
+            final String member = Objects.requireNonNull(t.getValue());
+            final int sep = member.indexOf(':');
+            return new TimelineKey(
+                    FeedItemDTO.FeedType.valueOf(member.substring(0, sep)),
+                    Long.parseLong(member.substring(sep + 1)),
+                    Objects.requireNonNull(t.getScore()).longValue()
+            );
+        }
+    }
+}
@@ -1,16 +1,28 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
+import io.github.bevzyuk.jsocialflux.application.cache.ChatMemberCache;
 import io.github.bevzyuk.jsocialflux.config.ws.RealtimeEvents;
-import io.github.bevzyuk.jsocialflux.domain.chat.Message;
+import io.github.bevzyuk.jsocialflux.domain.user.User;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.MessageBatchWriter;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.ReadAckWriter;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.ChatRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.MessageRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import io.github.bevzyuk.jsocialflux.web.dto.message.MessageDeletedEvent;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchSlice;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSlice;
 import io.github.bevzyuk.jsocialflux.web.mapper.ChatPreviewMapper;
 import io.github.bevzyuk.jsocialflux.web.mapper.MessageMapper;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.MessageRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.MessageSearchRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ParticipantPreviewRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -20,6 +32,9 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,12 +43,17 @@ public class MessageService {
     private final UserRepository userRepository;
     private final ChatRepository chatRepository;
     private final MessageRepository messageRepository;
+    private final MessageBatchWriter messageWriter;
+    private final ReadAckWriter readAcks;
 
     private final MessageMapper messageMapper;
     private final ChatPreviewMapper chatPreviewMapper;
     private final RealtimeEvents events;
+    private final AuthorCardCache authorCards;
+    private final ChatMemberCache chatMembers;
+    private final PreviewFanout previewFanout;
 
-    public Mono<MessageDTO> sendToChat(Long chatId, String senderUsername, String rawContent) {
+    public Mono<MessageDTO> sendToChat(Long chatId, User sender, String rawContent) {
         final String content = (rawContent == null) ? null : rawContent.trim();
         if (!StringUtils.hasText(content)) {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Повідомлення порожнє"));
@@ -42,58 +62,46 @@ public class MessageService {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Макс 255 символів"));
         }
 
-        return userRepository.findByUsername(senderUsername)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Користувача не знайдено")))
-                .flatMap(sender ->
-                        chatRepository.isParticipant(chatId, sender.getId())
-                                .flatMap(ok -> ok ? Mono.just(sender)
-                                        : Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату")))
-                                .flatMap(s -> chatRepository.findMeta(chatId)
-                                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Чат не знайдено")))
-                                        .flatMap(meta -> {
-
-                                            Message m = new Message();
-                                            m.setChatId(chatId);
-                                            m.setSenderId(s.getId());
-                                            m.setContent(content);
-
-                                            return messageRepository.save(m)
-                                                    .map(saved -> messageMapper.toDto(saved, s))
-
-                                                    .flatMap(dto ->
-                                                            events.chatMessage(chatId, dto)
-
-                                                                    .then(Mono.defer(() -> {
-                                                                        if (Boolean.TRUE.equals(meta.isGroup())) {
-                                                                            ChatViewDTO preview = chatPreviewMapper.toGroupPreview(
-                                                                                    chatId, meta.name(), meta.avatar(),
-                                                                                    dto.content(), dto.sentAt()
-                                                                            );
-                                                                            return chatRepository.findParticipantUsernames(chatId)
-                                                                                    .distinct()
-                                                                                    .flatMap(u -> events.userChatPreview(u, preview))
-                                                                                    .then();
-                                                                        } else {
-                                                                            return chatRepository.findOtherParticipant(chatId, s.getId())
-                                                                                    .flatMap(other -> {
-                                                                                        ChatViewDTO forSender = chatPreviewMapper.toPrivatePreviewForViewer(
-                                                                                                chatId, other.username(), other.avatar(),
-                                                                                                dto.content(), dto.sentAt()
-                                                                                        );
-                                                                                        ChatViewDTO forOther = chatPreviewMapper.toPrivatePreviewForViewer(
-                                                                                                chatId, s.getUsername(), s.getAvatar(),
-                                                                                                dto.content(), dto.sentAt()
-                                                                                        );
-                                                                                        return Flux.concat(
-                                                                                                events.userChatPreview(s.getUsername(), forSender),
-                                                                                                events.userChatPreview(other.username(), forOther)
-                                                                                        ).then();
-                                                                                    });
-                                                                        }
-                                                                    }))
-                                                                    .thenReturn(dto)
-                                                    );
-                                        })
+        return chatMembers.find(chatId)
+                .filter(chat -> chat.isMember(sender.getId()))
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату")))
+                .flatMap(chat ->
+
+                        messageWriter.write(chatId, sender.getId(), content)
+                                .map(saved -> messageMapper.toDto(saved, sender))
+
+                                .flatMap(dto ->
+                                        events.chatMessage(chatId, dto)
+                                                .doOnSuccess(v -> previewFanout.submit(chatId, Mono.defer(() -> {
+                                                    if (chat.group()) {
+                                                        ChatViewDTO preview = chatPreviewMapper.toGroupPreview(
+                                                                chatId, chat.name(), chat.avatar(),
+                                                                dto.content(), dto.sentAt()
+                                                        );
+                                                        return authorCards.resolve(chat.members())
+                                                                .flatMap(byId -> events.groupChatPreview(
+                                                                        byId.values().stream().map(UserLiteRec::username).toList(),
+                                                                        preview));
+                                                    } else {
+                                                        return Mono.justOrEmpty(chat.otherThan(sender.getId()))
+                                                                .flatMap(authorCards::find)
+                                                                .flatMap(other -> {
+                                                                    ChatViewDTO forSender = chatPreviewMapper.toPrivatePreviewForViewer(
+                                                                            chatId, other.username(), other.avatar(),
+                                                                            dto.content(), dto.sentAt()
+                                                                    );
+                                                                    ChatViewDTO forOther = chatPreviewMapper.toPrivatePreviewForViewer(
+                                                                            chatId, sender.getUsername(), sender.getAvatar(),
+                                                                            dto.content(), dto.sentAt()
+                                                                    );
+                                                                    return Mono.when(
+                                                                            events.userChatPreview(sender.getUsername(), forSender),
+                                                                            events.userChatPreview(other.username(), forOther)
+                                                                    );
+                                                                });
+                                                    }
+                                                })))
+                                                .thenReturn(dto)
                                 )
                 );
     }
@@ -104,11 +112,8 @@ public class MessageService {
         Instant cursorTime = (cursorEpochMs == null) ? Instant.now() : Instant.ofEpochMilli(cursorEpochMs);
         Long curId = (cursorId == null) ? Long.MAX_VALUE : cursorId;
 
-        return userRepository.findByUsername(username)
-                .flatMap(u -> chatRepository.isParticipant(chatId, u.getId())
-                        .flatMap(ok -> ok ? Mono.just(u)
-                                : Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату"))))
-                .thenMany(messageRepository.findSlice(chatId, cursorTime, curId, pageSize + 1))
+        return assertParticipant(chatId, username)
+                .thenMany(messages(messageRepository.findSlice(chatId, cursorTime, curId, pageSize + 1)))
                 .collectList()
                 .map(list -> {
                     boolean hasNext = list.size() > pageSize;
@@ -121,6 +126,116 @@ public class MessageService {
                 });
     }
 
+    public Flux<SliceFrame<MessageDTO>> streamSlice(Long chatId, String username, Long cursorEpochMs, Long cursorId, int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        Instant cursorTime = (cursorEpochMs == null) ? Instant.now() : Instant.ofEpochMilli(cursorEpochMs);
+        Long curId = (cursorId == null) ? Long.MAX_VALUE : cursorId;
+
+        return assertParticipant(chatId, username)
+                .thenMany(SliceFrame.stream(authorCards.hydrateEach(messageRepository.findSlice(chatId, cursorTime, curId, pageSize + 1),
+                                MessageRec::senderId, messageMapper::toDto), pageSize,
+                        last -> new Cursor2(last.sentAt().toEpochMilli(), last.id())));
+    }
+
+    public Mono<MessageSearchSlice> searchInChat(Long chatId, User user, String query, MessageSearchCursor cursor, int size) {
+        return chatMembers.isMember(chatId, user.getId())
+                .flatMap(ok -> ok ? Mono.<Void>empty()
+                        : Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату")))
+                .then(search(query, cursor, size, (q, c, limit) ->
+                        messageRepository.searchInChat(chatId, q, c.rank(), Instant.ofEpochMilli(c.epochMs()), c.id(), limit)));
+    }
+
+    public Mono<MessageSearchSlice> searchForUser(Long userId, String query, MessageSearchCursor cursor, int size) {
+        return search(query, cursor, size, (q, c, limit) ->
+                messageRepository.searchForUser(userId, q, c.rank(), Instant.ofEpochMilli(c.epochMs()), c.id(), limit));
+    }
+
+    private Mono<MessageSearchSlice> search(String rawQuery, MessageSearchCursor cursor, int size, SearchQuery run) {
+        final String query = rawQuery == null ? "" : rawQuery.trim();
+        if (!StringUtils.hasText(query)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Запит порожній"));
+        }
+        int pageSize = Math.max(1, Math.min(size, 50));
+        MessageSearchCursor c = (cursor == null || cursor.rank() == null || cursor.epochMs() == null || cursor.id() == null)
+                ? new MessageSearchCursor(Float.MAX_VALUE, System.currentTimeMillis(), Long.MAX_VALUE)
+                : cursor;
+
+        return run.page(query, c, pageSize + 1)
+                .collectList()
+                .flatMap(rows -> {
+                    boolean hasNext = rows.size() > pageSize;
+                    if (hasNext) rows.remove(pageSize);
+
+                    MessageSearchRec last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+                    MessageSearchCursor next = hasNext
+                            ? new MessageSearchCursor(last.rank(), last.sentAt().toEpochMilli(), last.id())
+                            : null;
+                    return messages(Flux.fromIterable(rows).map(MessageSearchRec::message))
+                            .collectList()
+                            .map(items -> new MessageSearchSlice(items, hasNext, next));
+                });
+    }
+
+    @FunctionalInterface
+    private interface SearchQuery {
+        Flux<MessageSearchRec> page(String query, MessageSearchCursor cursor, long limit);
+    }
+
+    private Flux<MessageDTO> messages(Flux<MessageRec> rows) {
+        return authorCards.hydrate(rows, MessageRec::senderId, messageMapper::toDto);
+    }
+
+    /** Нові прев'ю для всіх учасників одним запитом; група отримує одну подію на всіх. */
+    private Mono<Void> publishPreviews(Long chatId) {
+        return chatRepository.findPreviewsForParticipants(chatId)
+                .collectList()
+                .filter(rows -> !rows.isEmpty())
+                .flatMap(rows -> authorCards.resolve(rows.stream()
+                                .flatMap(r -> Stream.of(r.viewerId(), r.otherUserId()))
+                                .toList())
+                        .flatMap(cards -> {
+                            ParticipantPreviewRec first = rows.get(0);
+                            if (Boolean.TRUE.equals(first.isGroup())) {
+                                ChatViewDTO preview = chatPreviewMapper.toGroupPreview(
+                                        chatId, first.groupName(), first.groupAvatar(),
+                                        first.lastMessage(), first.lastSentAt());
+                                Map<String, Integer> unread = new HashMap<>();
+                                for (ParticipantPreviewRec r : rows) {
+                                    UserLiteRec viewer = cards.get(r.viewerId());
+                                    if (viewer != null) unread.put(viewer.username(), r.unreadCount() == null ? 0 : r.unreadCount());
+                                }
+                                return events.groupChatPreview(unread, preview);
+                            }
+                            return Flux.fromIterable(rows)
+                                    .filter(r -> cards.containsKey(r.viewerId()))
+                                    .flatMap(r -> events.userChatPreview(cards.get(r.viewerId()).username(),
+                                            chatPreviewMapper.toPreview(r.preview(), cards.get(r.otherUserId()))))
+                                    .then();
+                        }));
+    }
+
+    private Mono<Void> assertParticipant(Long chatId, String username) {
+        return userRepository.findByUsername(username)
+                .flatMap(u -> chatMembers.isMember(chatId, u.getId()))
+                .flatMap(ok -> ok ? Mono.<Void>empty()
+                        : Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату")));
+    }
+
+    public Mono<Void> markRead(Long chatId, Long userId, Long messageId) {
+        if (messageId == null || messageId <= 0) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Вкажіть messageId"));
+        }
+        return chatMembers.isMember(chatId, userId)
+                .flatMap(ok -> {
+                    if (!ok) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Ви не учасник цього чату"));
+                    }
+                    readAcks.ack(chatId, userId, messageId);
+                    return events.chatRead(chatId, userId, messageId)
+                            .onErrorResume(e -> Mono.empty());
+                });
+    }
+
     public Mono<Void> deleteMessage(Long messageId, String actorUsername) {
         return messageRepository.findById(messageId)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Повідомлення не знайдено")))
@@ -136,25 +251,11 @@ public class MessageService {
 
                                     final Long chatId = msg.getChatId();
 
-                                    return messageRepository.findLastId(chatId)
-                                            .defaultIfEmpty(-1L)
-                                            .flatMap(lastId ->
-
-                                                    messageRepository.deleteById(messageId)
-
-                                                            .then(events.chatMessageDeleted(chatId, messageId))
-
-                                                            .then(Mono.defer(() -> {
-                                                                if (!lastId.equals(messageId)) return Mono.empty();
-                                                                return chatRepository.findParticipantUsernames(chatId)
-                                                                        .distinct()
-                                                                        .flatMap(username ->
-                                                                                chatRepository.findChatViewForUserById(chatId, username)
-                                                                                        .flatMap(view -> events.userChatPreview(username, view))
-                                                                        )
-                                                                        .then();
-                                                            }))
-                                            );
+                                    return messageRepository.deleteReturningWasLast(messageId, msg.getSentAt())
+                                            .flatMap(wasLast -> events.chatMessageDeleted(chatId, messageId)
+                                                    .doOnSuccess(v -> {
+                                                        if (wasLast) previewFanout.submit(chatId, publishPreviews(chatId));
+                                                    }));
                                 })
                 );
     }
@@ -1,10 +1,14 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
 import io.github.bevzyuk.jsocialflux.domain.photo.PhotoComment;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.PhotoCommentRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.PhotoRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
 import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.CommentRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.request.CreateCommentRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.response.PhotoCommentDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.response.PhotoCommentSlice;
@@ -12,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
@@ -25,13 +30,14 @@ public class PhotoCommentService {
     private final PhotoCommentRepository photoCommentRepository;
     private final UserRepository userRepository;
     private final AccessControlService accessControlService;
+    private final AuthorCardCache authorCards;
 
     public Mono<PhotoCommentSlice> list(Long photoId, Cursor2 cursor, int size) {
         final Instant ts   = (cursor == null || cursor.ts() == null) ? null : Instant.ofEpochMilli(cursor.ts());
         final long    tie  = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
         final long    limit = size + 1;
 
-        return photoCommentRepository.findPageByPhotoIdBefore(photoId, ts, tie, limit)
+        return comments(photoCommentRepository.findPageByPhotoIdBefore(photoId, ts, tie, limit))
                 .collectList()
                 .map(list -> {
                     final boolean hasNext = list.size() > size;
@@ -46,6 +52,15 @@ public class PhotoCommentService {
                 });
     }
 
+    public Flux<SliceFrame<PhotoCommentDTO>> stream(Long photoId, Cursor2 cursor, int size) {
+        final Instant ts   = (cursor == null || cursor.ts() == null) ? null : Instant.ofEpochMilli(cursor.ts());
+        final long    tie  = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
+
+        return SliceFrame.stream(authorCards.hydrateEach(photoCommentRepository.findPageByPhotoIdBefore(photoId, ts, tie, size + 1),
+                        CommentRec::userId, PhotoCommentService::toDto), size,
+                last -> new Cursor2(last.createdAt().toEpochMilli(), last.id()));
+    }
+
     public Mono<PhotoCommentDTO> createComment(Long photoId, String username, CreateCommentRequest req) {
         final String content = (req == null || req.content() == null) ? null : req.content().trim();
         if (content == null || content.isEmpty()) {
@@ -86,4 +101,12 @@ public class PhotoCommentService {
                             .then(photoCommentRepository.deleteById(commentId));
                 });
     }
+
+    private Flux<PhotoCommentDTO> comments(Flux<CommentRec> rows) {
+        return authorCards.hydrate(rows, CommentRec::userId, PhotoCommentService::toDto);
+    }
+
+    private static PhotoCommentDTO toDto(CommentRec c, UserLiteRec author) {
+        return new PhotoCommentDTO(c.id(), c.content(), c.createdAt(), author.username(), author.avatar());
+    }
 }
@@ -1,19 +1,24 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.FeedHeadCache;
+import io.github.bevzyuk.jsocialflux.application.cache.FeedSegmentCache;
 import io.github.bevzyuk.jsocialflux.domain.photo.Photo;
 import io.github.bevzyuk.jsocialflux.infrastructure.cloud.servise.CloudinaryService;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.photo.response.PhotoCardDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.photo.response.PhotoSlice;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.PhotoRepository;
 import io.github.bevzyuk.jsocialflux.web.dto.photo.request.UpdatePhotoRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.photo.response.PhotoResponseDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
@@ -30,6 +35,12 @@ public class PhotoService {
 
     private final AccessControlService accessControlService;
 
+    private final TimelineFanoutService timelineFanoutService;
+
+    private final FeedHeadCache feedHeadCache;
+
+    private final FeedSegmentCache feedSegmentCache;
+
     public Mono<PhotoSlice> getUserPhotoCards(String username, Cursor2 cursor, int size) {
         Instant ts = (cursor == null || cursor.ts() == null) ? Instant.now() : Instant.ofEpochMilli(cursor.ts());
         long tieId = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
@@ -50,6 +61,14 @@ public class PhotoService {
                 });
     }
 
+    public Flux<SliceFrame<PhotoCardDTO>> streamUserPhotoCards(String username, Cursor2 cursor, int size) {
+        Instant ts = (cursor == null || cursor.ts() == null) ? Instant.now() : Instant.ofEpochMilli(cursor.ts());
+        long tieId = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
+
+        return SliceFrame.stream(photoRepository.findPageByOwnerBefore(username, ts, tieId, size + 1), size,
+                last -> new Cursor2(last.getUploadedAt().toEpochMilli(), last.getId()));
+    }
+
     public Mono<PhotoCardDTO> createPhotoCard(String username, FilePart file, String description) {
         if (file == null || file.filename() == null || file.filename().isBlank()) {
             return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Оберіть файл"));
@@ -67,6 +86,9 @@ public class PhotoService {
                             return photoRepository.save(ph);
                         })
                 )
+                .doOnNext(saved -> timelineFanoutService.itemCreated(
+                        saved.getUserId(), FeedItemDTO.FeedType.PHOTO, saved.getId(), saved.getUploadedAt()))
+                .doOnNext(saved -> feedHeadCache.itemSaved(FeedItemDTO.FeedType.PHOTO, saved.getId()))
                 .map(saved -> new PhotoCardDTO(
                         saved.getId(),
                         saved.getUrl(),
@@ -106,6 +128,10 @@ public class PhotoService {
                                 ))
                                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                                         "Не вдалося оновити опис")))
+                                .doOnNext(dto -> {
+                                    feedHeadCache.itemSaved(FeedItemDTO.FeedType.PHOTO, photoId);
+                                    feedSegmentCache.itemEdited(FeedItemDTO.FeedType.PHOTO, photoId);
+                                })
                 );
     }
 
@@ -117,6 +143,12 @@ public class PhotoService {
                                 .then(Mono.defer(() -> {
                                     String url = photo.getUrl();
                                     return photoRepository.deleteById(photoId)
+                                            .then(Mono.fromRunnable(() -> timelineFanoutService.itemDeleted(
+                                                    photo.getUserId(), FeedItemDTO.FeedType.PHOTO, photoId)))
+                                            .then(Mono.fromRunnable(() -> {
+                                                feedHeadCache.itemDeleted(FeedItemDTO.FeedType.PHOTO, photoId);
+                                                feedSegmentCache.itemDeleted(FeedItemDTO.FeedType.PHOTO, photoId);
+                                            }))
                                             .then(cloudinaryService.deleteImage(url)
                                                     .onErrorResume(e -> Mono.empty()));
                                 }))
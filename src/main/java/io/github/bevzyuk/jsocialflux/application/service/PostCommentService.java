@@ -1,10 +1,14 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
 import io.github.bevzyuk.jsocialflux.domain.post.PostComment;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.PostCommentRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.PostRepository;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
 import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.CommentRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.request.CreateCommentRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.postComment.response.PostCommentDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.postComment.response.PostCommentSlice;
@@ -12,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
@@ -25,13 +30,14 @@ public class PostCommentService {
     private final PostCommentRepository postCommentRepository;
     private final UserRepository userRepository;
     private final AccessControlService accessControlService;
+    private final AuthorCardCache authorCards;
 
     public Mono<PostCommentSlice> list(Long postId, Cursor2 cursor, int size) {
         final Instant ts   = (cursor == null || cursor.ts() == null) ? null : Instant.ofEpochMilli(cursor.ts());
         final long    tie  = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
         final long    limit = size + 1;
 
-        return postCommentRepository.findPageByPostIdBefore(postId, ts, tie, limit)
+        return comments(postCommentRepository.findPageByPostIdBefore(postId, ts, tie, limit))
                 .collectList()
                 .map(list -> {
                     final boolean hasNext = list.size() > size;
@@ -46,6 +52,15 @@ public class PostCommentService {
                 });
     }
 
+    public Flux<SliceFrame<PostCommentDTO>> stream(Long postId, Cursor2 cursor, int size) {
+        final Instant ts   = (cursor == null || cursor.ts() == null) ? null : Instant.ofEpochMilli(cursor.ts());
+        final long    tie  = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
+
+        return SliceFrame.stream(authorCards.hydrateEach(postCommentRepository.findPageByPostIdBefore(postId, ts, tie, size + 1),
+                        CommentRec::userId, PostCommentService::toDto), size,
+                last -> new Cursor2(last.createdAt().toEpochMilli(), last.id()));
+    }
+
     public Mono<PostCommentDTO> create(Long postId, String username, CreateCommentRequest req) {
         final String content = (req == null || req.content() == null) ? null : req.content().trim();
         if (content == null || content.isEmpty()) {
@@ -85,4 +100,12 @@ public class PostCommentService {
                             .then(postCommentRepository.deleteById(commentId));
                 });
     }
+
+    private Flux<PostCommentDTO> comments(Flux<CommentRec> rows) {
+        return authorCards.hydrate(rows, CommentRec::userId, PostCommentService::toDto);
+    }
+
+    private static PostCommentDTO toDto(CommentRec c, UserLiteRec author) {
+        return new PostCommentDTO(c.id(), c.content(), c.createdAt(), author.username(), author.avatar());
+    }
 }
@@ -1,7 +1,10 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.FeedHeadCache;
+import io.github.bevzyuk.jsocialflux.application.cache.FeedSegmentCache;
 import io.github.bevzyuk.jsocialflux.domain.post.Post;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.post.request.UpdatePostRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.post.response.PostCardDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.post.response.PostResponseDTO;
@@ -9,10 +12,12 @@ import io.github.bevzyuk.jsocialflux.web.dto.post.response.PostSlice;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.PostRepository;
 import io.github.bevzyuk.jsocialflux.web.dto.post.request.CreatePostRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
@@ -26,6 +31,13 @@ public class PostService {
     private final UserRepository userRepository;
 
     private final AccessControlService accessControlService;
+
+    private final TimelineFanoutService timelineFanoutService;
+
+    private final FeedHeadCache feedHeadCache;
+
+    private final FeedSegmentCache feedSegmentCache;
+
     public Mono<PostSlice> getUserPostCards(String username, Cursor2 cursor, int size) {
         Instant ts = (cursor == null || cursor.ts() == null) ? Instant.now() : Instant.ofEpochMilli(cursor.ts());
         long tieId = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
@@ -46,6 +58,14 @@ public class PostService {
                 });
     }
 
+    public Flux<SliceFrame<PostCardDTO>> streamUserPostCards(String username, Cursor2 cursor, int size) {
+        Instant ts = (cursor == null || cursor.ts() == null) ? Instant.now() : Instant.ofEpochMilli(cursor.ts());
+        long tieId = (cursor == null || cursor.id() == null) ? Long.MAX_VALUE : cursor.id();
+
+        return SliceFrame.stream(postRepository.findPageByOwnerBefore(username, ts, tieId, size + 1), size,
+                last -> new Cursor2(last.getCreatedAt().toEpochMilli(), last.getId()));
+    }
+
     public Mono<PostCardDTO> createPostCard(String username, CreatePostRequest req) {
         final String content = (req == null || req.content() == null)
                 ? null
@@ -63,6 +83,9 @@ public class PostService {
                     post.setContent(content);
                     return postRepository.save(post);
                 })
+                .doOnNext(saved -> timelineFanoutService.itemCreated(
+                        saved.getUserId(), FeedItemDTO.FeedType.POST, saved.getId(), saved.getCreatedAt()))
+                .doOnNext(saved -> feedHeadCache.itemSaved(FeedItemDTO.FeedType.POST, saved.getId()))
                 .map(saved -> new PostCardDTO(
                         saved.getId(),
                         saved.getContent(),
@@ -101,7 +124,11 @@ public class PostService {
                                     return postRepository.updateContentReturningDto(postId, trimmed)
                                             .switchIfEmpty(Mono.error(new ResponseStatusException(
                                                     HttpStatus.INTERNAL_SERVER_ERROR, "Не вдалося оновити пост"
-                                            )));
+                                            )))
+                                            .doOnNext(dto -> {
+                                                feedHeadCache.itemSaved(FeedItemDTO.FeedType.POST, postId);
+                                                feedSegmentCache.itemEdited(FeedItemDTO.FeedType.POST, postId);
+                                            });
                                 }))
                 );
     }
@@ -112,6 +139,12 @@ public class PostService {
                 .flatMap(post ->
                         accessControlService.assertOwnerOrAdmin(post.getUserId(), currentUsername)
                                 .then(postRepository.deleteById(postId))
+                                .then(Mono.fromRunnable(() -> timelineFanoutService.itemDeleted(
+                                        post.getUserId(), FeedItemDTO.FeedType.POST, postId)))
+                                .then(Mono.fromRunnable(() -> {
+                                    feedHeadCache.itemDeleted(FeedItemDTO.FeedType.POST, postId);
+                                    feedSegmentCache.itemDeleted(FeedItemDTO.FeedType.POST, postId);
+                                }))
                 );
     }
 }
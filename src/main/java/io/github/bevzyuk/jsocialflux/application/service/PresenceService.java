@@ -0,0 +1,77 @@
+package io.github.bevzyuk.jsocialflux.application.service;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.user.PresenceDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Присутність живе лише в Redis: ключ {@code presence:<username>} зберігає час останнього сигналу сесії.
+ * Ключ оновлюють PING/KEEPALIVE вебсокета, тож онлайн — це сигнал, свіжіший за {@link #ONLINE_WINDOW}.
+ * Чужу присутність видно лише співрозмовникам і зв'язкам у графі підписок.
+ */
+@Service
+@RequiredArgsConstructor
+public class PresenceService {
+
+    /** Два пропущені KEEPALIVE (кожні 30 с) з запасом. */
+    public static final Duration ONLINE_WINDOW = Duration.ofSeconds(75);
+    private static final Duration LAST_SEEN_TTL = Duration.ofDays(30);
+    private static final int MAX_LOOKUP = 500;
+
+    private final ReactiveStringRedisTemplate redis;
+    private final UserRepository userRepository;
+
+    public Mono<Void> touch(String username) {
+        return redis.opsForValue()
+                .set(key(username), Long.toString(System.currentTimeMillis()), LAST_SEEN_TTL)
+                .then();
+    }
+
+    /**
+     * Увесь список одним MGET; порядок відповіді збігається з порядком імен.
+     * Імена, присутність яких {@code viewerId} бачити не може, у відповідь не потрапляють.
+     */
+    public Mono<List<PresenceDTO>> lookup(Long viewerId, List<String> usernames) {
+        if (usernames == null || usernames.isEmpty()) return Mono.just(List.of());
+        List<String> requested = usernames.stream().distinct().limit(MAX_LOOKUP).toList();
+
+        return userRepository.findPresenceVisibleUsernames(viewerId, requested.toArray(String[]::new))
+                .collect(HashSet<String>::new, HashSet::add)
+                .map(visible -> requested.stream().filter(visible::contains).toList())
+                .flatMap(this::read);
+    }
+
+    private Mono<List<PresenceDTO>> read(List<String> names) {
+        if (names.isEmpty()) return Mono.just(List.of());
+        List<String> keys = names.stream().map(PresenceService::key).toList();
+
+        return redis.opsForValue().multiGet(keys)
+                .map(values -> {
+                    long onlineSince = System.currentTimeMillis() - ONLINE_WINDOW.toMillis();
+                    List<PresenceDTO> out = new ArrayList<>(names.size());
+                    for (int i = 0; i < names.size(); i++) {
+                        String v = i < values.size() ? values.get(i) : null;
+                        if (v == null) {
+                            out.add(new PresenceDTO(names.get(i), false, null));
+                            continue;
+                        }
+                        long seen = Long.parseLong(v);
+                        out.add(new PresenceDTO(names.get(i), seen >= onlineSince, Instant.ofEpochMilli(seen)));
+                    }
+                    return out;
+                });
+    }
+
+    private static String key(String username) {
+        return "presence:" + username;
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.bevzyuk.jsocialflux.application.service;
+
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.pipeline.BoundedLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Розсилка прев'ю у фоні, поза відповіддю відправнику. На кожен чат чекає не більше однієї розсилки:
+ * нова заміняє ще не почату (перемагає остання), тож відкидається лише застаріле прев'ю, а черга обмежена кількістю чатів.
+ * Розсилки одного чату не перетинаються; одночасно виконується не більше {@code app.chat.preview-concurrency}.
+ */
+@Component
+public class PreviewFanout {
+
+    private final Map<Long, Slot> slots = new ConcurrentHashMap<>();
+    private final BoundedLane<Long> lane;
+    private final Counter superseded;
+    private final Counter failed;
+    private final Timer latency;
+
+    PreviewFanout(ChatProperties props, MeterRegistry meterRegistry) {
+        this.lane = new BoundedLane<>("chat.preview",
+                new BoundedLane.Spec(0, 1, Duration.ZERO, props.previewConcurrency(), BoundedLane.Overflow.REJECT),
+                meterRegistry,
+                ids -> run(ids.get(0)),
+                slots::remove);
+        Gauge.builder("chat.preview.fanout.pending", slots, Map::size).register(meterRegistry);
+        this.superseded = Counter.builder("chat.preview.fanout.superseded").register(meterRegistry);
+        this.failed = Counter.builder("chat.preview.fanout.failed").register(meterRegistry);
+        this.latency = Timer.builder("chat.preview.fanout.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        lane.dispose();
+    }
+
+    /** {@code work} має бути лінивим: він стартує лише тоді, коли до чату дійде черга. */
+    public void submit(Long chatId, Mono<Void> work) {
+        final Task task = new Task(work, System.nanoTime());
+        final boolean[] schedule = {false};
+        slots.compute(chatId, (id, s) -> {
+            if (s == null) {
+                schedule[0] = true;
+                return new Slot(task, false);
+            }
+            if (s.pending() != null) superseded.increment();
+            return new Slot(task, s.running());
+        });
+        if (schedule[0]) lane.offer(chatId);
+    }
+
+    private Mono<Void> run(Long chatId) {
+        final Task[] taken = new Task[1];
+        slots.computeIfPresent(chatId, (id, s) -> {
+            taken[0] = s.pending();
+            return new Slot(null, true);
+        });
+        final Task task = taken[0];
+        if (task == null) {
+            finish(chatId);
+            return Mono.empty();
+        }
+        return task.work()
+                .doOnSuccess(v -> latency.record(System.nanoTime() - task.enqueuedAt(), TimeUnit.NANOSECONDS))
+                .onErrorResume(e -> {
+                    failed.increment();
+                    return Mono.empty();
+                })
+                .doFinally(sig -> finish(chatId));
+    }
+
+    /** Якщо поки чат розсилався прийшло новіше прев'ю, чат знову стає в чергу. */
+    private void finish(Long chatId) {
+        final boolean[] again = {false};
+        slots.computeIfPresent(chatId, (id, s) -> {
+            if (s.pending() == null) return null;
+            again[0] = true;
+            return new Slot(s.pending(), false);
+        });
+        if (again[0]) lane.offer(chatId);
+    }
+
+    private record Task(Mono<Void> work, long enqueuedAt) {}
+
+    private record Slot(Task pending, boolean running) {}
+}
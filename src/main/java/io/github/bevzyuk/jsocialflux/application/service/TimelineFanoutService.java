@@ -0,0 +1,113 @@
+package io.github.bevzyuk.jsocialflux.application.service;
+
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.config.ws.RealtimeEvents;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.FollowRepository;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.TimelineRepository;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.UserRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.mapper.FeedItemMapper;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class TimelineFanoutService {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final TimelineRepository timelineRepository;
+    private final FeedRepository feedRepository;
+    private final FeedItemMapper mapper;
+    private final AuthorCardCache authorCards;
+    private final RealtimeEvents realtimeEvents;
+    private final FeedProperties props;
+
+    public void itemCreated(Long authorId, FeedItemDTO.FeedType type, Long id, Instant createdAt) {
+        fanOutCreated(authorId, type, id, createdAt).subscribe();
+    }
+
+    public void itemDeleted(Long authorId, FeedItemDTO.FeedType type, Long id) {
+        fanOutDeleted(authorId, type, id).subscribe();
+    }
+
+    /**
+     * Запис у стрічки та live-подія: глобальний канал feed, одна подія на всіх, чиї стрічки оновлено
+     * (вузли розсилають її своїм сесіям), або канал автора.
+     */
+    public Mono<Void> fanOutCreated(Long authorId, FeedItemDTO.FeedType type, Long id, Instant createdAt) {
+        final String member = TimelineRepository.member(type, id);
+        final long score = createdAt.toEpochMilli();
+        return findItem(type, id).flatMap(item -> realtimeEvents.feedItem(item)
+                .onErrorResume(e -> Mono.empty())
+                .then(fanOut(
+                        new UserLiteRec(authorId, item.getUsername(), item.getAvatar()),
+                        u -> timelineRepository.push(u.id(), member, score, props.timelineSize()),
+                        realtimeEvents.authorFeedItem(authorId, item)))
+                .flatMap(pushed -> realtimeEvents.followersFeedItem(pushed, item)
+                        .onErrorResume(e -> Mono.empty())));
+    }
+
+    public Mono<Void> fanOutDeleted(Long authorId, FeedItemDTO.FeedType type, Long id) {
+        final String member = TimelineRepository.member(type, id);
+        return fanOut(
+                new UserLiteRec(authorId, null, null),
+                u -> timelineRepository.remove(u.id(), member),
+                Mono.empty())
+                .then();
+    }
+
+    /** Автори, чиї записи підписник домішує під час читання, а не отримує розсилкою. */
+    public Flux<Long> pulledAuthorIds(String username) {
+        return userRepository.findByUsername(username)
+                .flatMapMany(u -> userRepository.findFollowedIdsWithFollowersAtLeast(u.getId(), props.pullThreshold()));
+    }
+
+    /**
+     * Автори з followers_cnt >= pull-threshold не розсилаються підписникам:
+     * їхні записи потрапляють лише у власну стрічку, а читачі домішують їх під час читання.
+     * Повертає імена тих, чию стрічку вдалося змінити.
+     */
+    private Mono<List<String>> fanOut(UserLiteRec author, Function<UserLiteRec, Mono<Void>> write, Mono<Void> pulled) {
+        final Mono<List<String>> followers = userRepository.findFollowersCnt(author.id())
+                .defaultIfEmpty(0L)
+                .flatMap(cnt -> cnt >= props.pullThreshold()
+                        ? pulled.onErrorResume(e -> Mono.empty()).thenReturn(List.<String>of())
+                        : followRepository.findFollowers(author.id())
+                                .buffer(props.fanoutBatch())
+                                .concatMap(batch -> Flux.fromIterable(batch)
+                                        .flatMap(u -> write.apply(u)
+                                                .thenReturn(u.username())
+                                                .onErrorResume(e -> Mono.empty())))
+                                .collectList());
+        final Mono<Boolean> own = write.apply(author)
+                .thenReturn(true)
+                .onErrorResume(e -> Mono.just(false));
+
+        return Mono.zip(own, followers, (ownWritten, names) -> {
+                    if (!ownWritten || author.username() == null) return names;
+                    final List<String> all = new ArrayList<>(names);
+                    all.add(author.username());
+                    return all;
+                })
+                .onErrorResume(e -> Mono.just(List.of()));
+    }
+
+    private Mono<FeedItemDTO> findItem(FeedItemDTO.FeedType type, Long id) {
+        final Long[] postIds  = type == FeedItemDTO.FeedType.POST  ? new Long[]{id} : new Long[0];
+        final Long[] photoIds = type == FeedItemDTO.FeedType.PHOTO ? new Long[]{id} : new Long[0];
+        return authorCards.hydrate(feedRepository.findByKeys(postIds, photoIds), FeedItemRow::userId, mapper::toDTO)
+                .next();
+    }
+}
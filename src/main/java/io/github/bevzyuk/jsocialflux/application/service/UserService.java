@@ -1,5 +1,6 @@
 package io.github.bevzyuk.jsocialflux.application.service;
 
+import io.github.bevzyuk.jsocialflux.application.cache.AuthorCardCache;
 import io.github.bevzyuk.jsocialflux.infrastructure.cloud.servise.CloudinaryService;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
 import io.github.bevzyuk.jsocialflux.infrastructure.persistence.FollowRepository;
@@ -27,6 +28,8 @@ public class UserService {
 
     private final CloudinaryService cloudinaryService;
 
+    private final AuthorCardCache authorCards;
+
     public Mono<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -124,6 +127,7 @@ public class UserService {
                     return nameCheck
                             .then(Mono.defer(() -> applyUpdates(u, newNameToApply, avatar, cmd.deleteAvatar())))
                             .flatMap(userRepository::save)
+                            .doOnNext(saved -> authorCards.invalidate(saved.getId()))
                             .map(saved -> new ProfileUpdateResponse(saved.getUsername(), saved.getAvatar()));
                 });
     }
@@ -0,0 +1,20 @@
+package io.github.bevzyuk.jsocialflux.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.chat")
+public record ChatProperties(
+        int writeBatch,
+        Duration writeLinger,
+        int writeQueue,
+        int writeConcurrency,
+        Duration readAckFlush,
+        int partitionsAhead,
+        Duration partitionCheck,
+        int archiveAfterMonths,
+        int dropArchiveAfterMonths,
+        int previewConcurrency,
+        Duration tombstoneRetention
+) {}
@@ -0,0 +1,19 @@
+package io.github.bevzyuk.jsocialflux.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.feed")
+public record FeedProperties(
+        int timelineSize,
+        int fanoutBatch,
+        long pullThreshold,
+        Engine engine,
+        int headSize,
+        long segmentMax,
+        Duration segmentTtl
+) {
+
+    public enum Engine { TABLE, MERGE }
+}
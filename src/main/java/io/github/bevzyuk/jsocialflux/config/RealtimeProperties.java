@@ -0,0 +1,15 @@
+package io.github.bevzyuk.jsocialflux.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.realtime")
+public record RealtimeProperties(
+        int publishBatch,
+        Duration publishWindow,
+        int publishQueue,
+        int publishConcurrency,
+        int ephemeralQueue,
+        int ephemeralConcurrency
+) {}
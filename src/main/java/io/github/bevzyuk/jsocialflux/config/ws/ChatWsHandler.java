@@ -2,10 +2,13 @@ package io.github.bevzyuk.jsocialflux.config.ws;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.bevzyuk.jsocialflux.application.service.AccessControlService;
+import io.github.bevzyuk.jsocialflux.application.service.PresenceService;
+import io.github.bevzyuk.jsocialflux.application.service.TimelineFanoutService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.connection.ReactiveSubscription;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.socket.CloseStatus;
@@ -14,15 +17,18 @@ import org.springframework.web.reactive.socket.WebSocketMessage;
 import org.springframework.web.reactive.socket.WebSocketSession;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.Disposable;
+import reactor.core.Disposables;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.time.Duration;
 import java.util.Map;
-import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 @RequiredArgsConstructor
@@ -30,12 +36,27 @@ class ChatWsHandler implements WebSocketHandler {
 
     private final ReactiveRedisMessageListenerContainer container;
     private final AccessControlService access;
+    private final TimelineFanoutService timelineFanoutService;
+    private final PreviewHub previewHub;
+    private final FeedHub feedHub;
+    private final PresenceService presence;
+    private final RealtimeEvents events;
     private final ObjectMapper om;
 
+    static final SerializationPair<ByteBuffer> RAW = SerializationPair.byteBuffer();
+
     static final class Cmd { public String type; public String channel; }
 
     private static final int MAX_CHANNELS_PER_SESSION = 64;
     private static final int BACKPRESSURE_BUFFER = 512;
+    private static final Duration HEARTBEAT = Duration.ofSeconds(30);
+    /** Частіші PING від клієнта не перезаписують ключ присутності. */
+    private static final long PRESENCE_TOUCH_MS = 10_000;
+    /** Не більше одного TYPING на чат за інтервал, скільки б клавіш не натиснули. */
+    private static final long TYPING_INTERVAL_MS = 3_000;
+
+    private static final ByteBuffer PONG = frame("{\"event\":\"PONG\"}");
+    private static final ByteBuffer KEEPALIVE = frame("{\"event\":\"KEEPALIVE\"}");
 
     @Override
     public Mono<Void> handle(WebSocketSession session) {
@@ -46,9 +67,11 @@ class ChatWsHandler implements WebSocketHandler {
                         HttpStatus.UNAUTHORIZED, "Необхідна автентифікація")))
                 .cache();
 
-        Sinks.Many<String> sink = Sinks.many().multicast().onBackpressureBuffer(BACKPRESSURE_BUFFER);
+        Sinks.Many<ByteBuffer> sink = Sinks.many().multicast().onBackpressureBuffer(BACKPRESSURE_BUFFER);
 
         Map<String, Disposable> subs = new ConcurrentHashMap<>();
+        Map<String, Long> typingAt = new ConcurrentHashMap<>();
+        AtomicLong presenceAt = new AtomicLong();
 
         Mono<Void> commandsFlow = session.receive()
                 .map(WebSocketMessage::getPayloadAsText)
@@ -68,16 +91,21 @@ class ChatWsHandler implements WebSocketHandler {
 
                             return usernameMono
                                     .flatMap(u -> access.assertCanSubscribeChannel(u, channel))
-                                    .then(Mono.fromSupplier(() -> {
-                                        Disposable d = container.receive(ChannelTopic.of(channel))
+                                    .thenMany(topics(channel))
+                                    .collectList()
+                                    .map(topics -> {
+                                        Disposable d = topics.isEmpty() ? Disposables.single() : container.receive(topics, RAW, RAW)
                                                 .map(ReactiveSubscription.Message::getMessage)
-                                                .map(Objects::toString)
                                                 .onBackpressureBuffer(BACKPRESSURE_BUFFER)
                                                 .subscribe(msg -> {
                                                     sink.tryEmitNext(msg);
                                                 });
+                                        String previews = owner(channel, ":preview");
+                                        if (previews != null) return Disposables.composite(d, previewHub.register(previews, sink));
+                                        String feed = owner(channel, ":feed");
+                                        if (feed != null) return Disposables.composite(d, feedHub.register(feed, sink));
                                         return d;
-                                    }))
+                                    })
                                     .flatMap(d -> {
                                         Disposable prev = subs.putIfAbsent(channel, d);
                                         if (prev != null) {
@@ -96,8 +124,20 @@ class ChatWsHandler implements WebSocketHandler {
                             return Mono.empty();
 
                         case "PING":
-                            sink.tryEmitNext("{\"event\":\"PONG\"}");
-                            return Mono.empty();
+                            sink.tryEmitNext(PONG);
+                            return touchPresence(usernameMono, presenceAt);
+
+                        case "TYPING":
+                            if (!channel.startsWith("chat:") || !subs.containsKey(channel)) return Mono.empty();
+                            long now = System.currentTimeMillis();
+                            Long last = typingAt.get(channel);
+                            if (last != null && now - last < TYPING_INTERVAL_MS) return Mono.empty();
+                            typingAt.put(channel, now);
+                            Long chatId = chatId(channel);
+                            if (chatId == null) return Mono.empty();
+                            return usernameMono
+                                    .flatMap(u -> events.chatTyping(chatId, u))
+                                    .onErrorResume(e -> Mono.empty());
 
                         default:
                             return Mono.empty();
@@ -105,15 +145,17 @@ class ChatWsHandler implements WebSocketHandler {
                 })
                 .then();
 
-        Flux<String> heartbeat = Flux.interval(Duration.ofSeconds(30))
-                .map(t -> "{\"event\":\"KEEPALIVE\"}");
+        Flux<ByteBuffer> heartbeat = Flux.interval(HEARTBEAT)
+                .doOnNext(t -> touchPresence(usernameMono, presenceAt).subscribe())
+                .map(t -> KEEPALIVE);
 
+        // той самий буфер події загортається в кадр кожної сесії без копіювання
         Mono<Void> outboundFlow = session.send(
                 Flux.merge(sink.asFlux(), heartbeat)
-                        .map(session::textMessage)
+                        .map(bb -> new WebSocketMessage(WebSocketMessage.Type.TEXT, session.bufferFactory().wrap(bb.duplicate())))
         );
 
-        return Mono.when(commandsFlow, outboundFlow)
+        return Mono.when(touchPresence(usernameMono, presenceAt), commandsFlow, outboundFlow)
                 .doFinally(sig -> {
                     subs.values().forEach(Disposable::dispose);
                     subs.clear();
@@ -121,16 +163,57 @@ class ChatWsHandler implements WebSocketHandler {
                 });
     }
 
+    static ByteBuffer frame(String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    private Mono<Void> touchPresence(Mono<String> usernameMono, AtomicLong presenceAt) {
+        long now = System.currentTimeMillis();
+        long prev = presenceAt.get();
+        if (now - prev < PRESENCE_TOUCH_MS || !presenceAt.compareAndSet(prev, now)) return Mono.empty();
+        return usernameMono
+                .flatMap(presence::touch)
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private static Long chatId(String channel) {
+        try {
+            return Long.parseLong(channel.substring("chat:".length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private Mono<Cmd> parseCmd(String json) {
         return Mono.fromCallable(() -> om.readValue(json, Cmd.class))
                 .onErrorResume(e -> Mono.empty());
     }
 
+    /**
+     * Розіслані елементи персональної стрічки приходять через {@link FeedHub};
+     * з Redis вона слухає лише канали авторів, яких домішує під час читання.
+     */
+    private Flux<ChannelTopic> topics(String channel) {
+        String feed = owner(channel, ":feed");
+        if (feed == null) {
+            return Flux.just(ChannelTopic.of(channel));
+        }
+        return timelineFanoutService.pulledAuthorIds(feed)
+                .map(id -> ChannelTopic.of(RedisRealtimeEvents.chAuthorFeed(id)));
+    }
+
+    private static String owner(String channel, String suffix) {
+        if (!channel.startsWith("user:") || !channel.endsWith(suffix)) return null;
+        return channel.substring("user:".length(), channel.length() - suffix.length());
+    }
+
     private String normalizeChannel(String ch) {
         if (ch == null) return "";
         String s = ch.trim();
         if (s.startsWith("chat:")) return s;
         if (s.startsWith("user:") && s.endsWith(":preview")) return s;
+        if (s.equals(RedisRealtimeEvents.CH_FEED)) return s;
+        if (s.startsWith("user:") && s.endsWith(":feed")) return s;
         return "";
     }
 }
\ No newline at end of file
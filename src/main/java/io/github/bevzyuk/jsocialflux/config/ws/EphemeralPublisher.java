@@ -0,0 +1,95 @@
+package io.github.bevzyuk.jsocialflux.config.ws;
+
+import io.github.bevzyuk.jsocialflux.config.RealtimeProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.pipeline.BoundedLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Окрема смуга для подій, яких немає в базі (набір тексту, прочитання): власна черга на
+ * {@code app.realtime.ephemeral-queue} подій і власне з'єднання з Redis. Спільне нативне з'єднання Lettuce
+ * тут не годиться: на ньому працює {@link RedisPublishBatcher}, і сплеск таких подій ставав би в чергу
+ * перед повідомленнями. При переповненні викидається найстаріша подія; одночасно в роботі до
+ * {@code app.realtime.ephemeral-concurrency} подій. Повторів немає, виклик завершується одразу після постановки в чергу.
+ */
+@Component
+class EphemeralPublisher {
+
+    private final LettuceConnectionFactory shared;
+    private final Counter failed;
+    private final BoundedLane<Pending> lane;
+
+    private LettuceConnectionFactory dedicated;
+    private ReactiveRedisConnection connection;
+
+    EphemeralPublisher(LettuceConnectionFactory shared,
+                       RealtimeProperties props,
+                       MeterRegistry meterRegistry) {
+        this.shared = shared;
+        this.failed = Counter.builder("realtime.ephemeral.failed").register(meterRegistry);
+        this.lane = new BoundedLane<>("realtime.ephemeral",
+                new BoundedLane.Spec(props.ephemeralQueue(), 1, Duration.ZERO,
+                        props.ephemeralConcurrency(), BoundedLane.Overflow.DROP_OLDEST),
+                meterRegistry,
+                this::flush,
+                p -> {});
+    }
+
+    @PostConstruct
+    void start() {
+        dedicated = dedicatedFactory(shared);
+        dedicated.afterPropertiesSet();
+        dedicated.start();
+        connection = dedicated.getReactiveConnection();
+    }
+
+    @PreDestroy
+    void stop() {
+        lane.dispose();
+        if (connection != null) connection.close();
+        if (dedicated != null) dedicated.destroy();
+    }
+
+    Mono<Void> publish(String channel, byte[] message) {
+        return Mono.fromRunnable(() -> lane.offer(new Pending(channel, message)));
+    }
+
+    /** Подія без збереження не варта повтору чи логу: рахуємо й ідемо далі. */
+    private Mono<Void> flush(List<Pending> batch) {
+        final Pending p = batch.get(0);
+        return connection.pubSubCommands()
+                .publish(ByteBuffer.wrap(p.channel().getBytes(StandardCharsets.UTF_8)), ByteBuffer.wrap(p.message()))
+                .then()
+                .onErrorResume(e -> {
+                    failed.increment();
+                    return Mono.empty();
+                });
+    }
+
+    /** Та сама адреса й налаштування клієнта, але кожне з'єднання фабрики — окреме нативне. */
+    private static LettuceConnectionFactory dedicatedFactory(LettuceConnectionFactory shared) {
+        final LettuceConnectionFactory factory;
+        if (shared.isClusterAware()) {
+            factory = new LettuceConnectionFactory(shared.getClusterConfiguration(), shared.getClientConfiguration());
+        } else if (shared.isRedisSentinelAware()) {
+            factory = new LettuceConnectionFactory(shared.getSentinelConfiguration(), shared.getClientConfiguration());
+        } else {
+            factory = new LettuceConnectionFactory(shared.getStandaloneConfiguration(), shared.getClientConfiguration());
+        }
+        factory.setShareNativeConnection(false);
+        return factory;
+    }
+
+    private record Pending(String channel, byte[] message) {}
+}
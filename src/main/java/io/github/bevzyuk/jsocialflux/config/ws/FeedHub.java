@@ -0,0 +1,78 @@
+package io.github.bevzyuk.jsocialflux.config.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Локальна розсилка нових елементів персональних стрічок: одна публікація на запис автора,
+ * вузол віддає її тільки тим {@code user:*:feed} сесіям, які тримає сам.
+ */
+@Component
+@RequiredArgsConstructor
+class FeedHub {
+
+    private final ReactiveRedisMessageListenerContainer container;
+    private final ObjectMapper om;
+
+    private final Map<String, Set<Sinks.Many<ByteBuffer>>> sessions = new ConcurrentHashMap<>();
+
+    private Disposable events;
+
+    @PostConstruct
+    void listen() {
+        events = container.receive(List.of(ChannelTopic.of(RedisRealtimeEvents.CH_FOLLOWER_FEED)),
+                        ChatWsHandler.RAW, ChatWsHandler.RAW)
+                .map(ReactiveSubscription.Message::getMessage)
+                .concatMap(json -> Mono.fromRunnable(() -> deliver(json))
+                        .onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (events != null) events.dispose();
+    }
+
+    Disposable register(String username, Sinks.Many<ByteBuffer> sink) {
+        sessions.computeIfAbsent(username, u -> ConcurrentHashMap.newKeySet()).add(sink);
+        return () -> sessions.computeIfPresent(username, (u, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+    }
+
+    /** Подія кодується один раз, лише якщо на вузлі є хоч одна сесія отримувача, і спільним буфером іде всім. */
+    private void deliver(ByteBuffer payload) {
+        try {
+            JsonNode ev = om.readTree(new ByteBufferBackedInputStream(payload.duplicate()));
+            ByteBuffer frame = null;
+            for (JsonNode u : ev.path("usernames")) {
+                Set<Sinks.Many<ByteBuffer>> sinks = sessions.get(u.asText());
+                if (sinks == null) continue;
+                if (frame == null) frame = ByteBuffer.wrap(om.writeValueAsBytes(ev.get("event"))).asReadOnlyBuffer();
+                for (Sinks.Many<ByteBuffer> sink : sinks) {
+                    sink.tryEmitNext(frame);
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.bevzyuk.jsocialflux.config.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Локальна розсилка групових прев'ю: вузол слухає один канал і віддає подію
+ * тільки тим {@code user:*:preview} сесіям, які тримає сам.
+ */
+@Component
+@RequiredArgsConstructor
+class PreviewHub {
+
+    private final ReactiveRedisMessageListenerContainer container;
+    private final ObjectMapper om;
+
+    private final Map<String, Set<Sinks.Many<ByteBuffer>>> sessions = new ConcurrentHashMap<>();
+
+    private Disposable events;
+
+    @PostConstruct
+    void listen() {
+        events = container.receive(List.of(ChannelTopic.of(RedisRealtimeEvents.CH_GROUP_PREVIEW)),
+                        ChatWsHandler.RAW, ChatWsHandler.RAW)
+                .map(ReactiveSubscription.Message::getMessage)
+                .concatMap(json -> Mono.fromRunnable(() -> deliver(json))
+                        .onErrorResume(e -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (events != null) events.dispose();
+    }
+
+    Disposable register(String username, Sinks.Many<ByteBuffer> sink) {
+        sessions.computeIfAbsent(username, u -> ConcurrentHashMap.newKeySet()).add(sink);
+        return () -> sessions.computeIfPresent(username, (u, sinks) -> {
+            sinks.remove(sink);
+            return sinks.isEmpty() ? null : sinks;
+        });
+    }
+
+    /**
+     * Прев'ю кодується один раз на вузол для кожного різного unreadCount і спільним буфером іде
+     * всім локальним сесіям з таким лічильником.
+     */
+    private void deliver(ByteBuffer payload) {
+        try {
+            JsonNode ev = om.readTree(new ByteBufferBackedInputStream(payload.duplicate()));
+            JsonNode unread = ev.path("unread");
+            Map<Integer, ByteBuffer> views = new HashMap<>();
+            for (JsonNode u : ev.path("usernames")) {
+                Set<Sinks.Many<ByteBuffer>> sinks = sessions.get(u.asText());
+                if (sinks == null) continue;
+                JsonNode count = unread.get(u.asText());
+                ByteBuffer view = views.get(count == null ? null : count.asInt());
+                if (view == null) {
+                    ObjectNode node = ev.get("view").deepCopy();
+                    if (count != null) node.put("unreadCount", count.asInt());
+                    view = ByteBuffer.wrap(om.writeValueAsBytes(node)).asReadOnlyBuffer();
+                    views.put(count == null ? null : count.asInt(), view);
+                }
+                for (Sinks.Many<ByteBuffer> sink : sinks) {
+                    sink.tryEmitNext(view);
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
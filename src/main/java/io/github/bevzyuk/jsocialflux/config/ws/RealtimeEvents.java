@@ -1,11 +1,24 @@
 package io.github.bevzyuk.jsocialflux.config.ws;
 
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface RealtimeEvents {
     Mono<Void> chatMessage(Long chatId, MessageDTO dto);
     Mono<Void> chatMessageDeleted(Long chatId, Long messageId);
+    Mono<Void> chatTyping(Long chatId, String username);
+    Mono<Void> chatRead(Long chatId, Long userId, Long messageId);
     Mono<Void> userChatPreview(String username, ChatViewDTO view);
+    Mono<Void> groupChatPreview(Collection<String> usernames, ChatViewDTO view);
+    /** Як {@link #groupChatPreview(Collection, ChatViewDTO)}, але кожен отримувач бачить свій unreadCount. */
+    Mono<Void> groupChatPreview(Map<String, Integer> unreadByUsername, ChatViewDTO view);
+    Mono<Void> feedItem(FeedItemDTO item);
+    /** Одна публікація на всіх підписників, розсилку по сесіях робить кожен вузол. */
+    Mono<Void> followersFeedItem(Collection<String> usernames, FeedItemDTO item);
+    Mono<Void> authorFeedItem(Long authorId, FeedItemDTO item);
 }
@@ -0,0 +1,104 @@
+package io.github.bevzyuk.jsocialflux.config.ws;
+
+import io.github.bevzyuk.jsocialflux.config.RealtimeProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.pipeline.BoundedLane;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.data.redis.connection.ReactiveRedisConnection;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PUBLISH пачками: події збираються до {@code app.realtime.publish-batch} або {@code app.realtime.publish-window}
+ * і йдуть одним конвеєром по спільному з'єднанню, без очікування відповіді на кожну.
+ * Пачки не чекають одна на одну: одночасно в роботі до {@code app.realtime.publish-concurrency} пачок.
+ * Кожен виклик отримує власне завершення. Коли черга переповнена, подія публікується напряму.
+ * Тіло події приходить уже закодованим у байти, без проміжного {@code String}.
+ * Події без збереження в базі йдуть окремою смугою {@link EphemeralPublisher}.
+ */
+@Component
+class RedisPublishBatcher {
+
+    private final ReactiveRedisConnectionFactory connectionFactory;
+    private final Timer latency;
+    private final DistributionSummary batchSize;
+    private final Counter failed;
+    private final BoundedLane<Pending> lane;
+
+    private ReactiveRedisConnection connection;
+
+    RedisPublishBatcher(ReactiveRedisConnectionFactory connectionFactory,
+                        RealtimeProperties props,
+                        MeterRegistry meterRegistry) {
+        this.connectionFactory = connectionFactory;
+        this.latency = Timer.builder("realtime.publish.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("realtime.publish.batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failed = Counter.builder("realtime.publish.failed").register(meterRegistry);
+        this.lane = new BoundedLane<>("realtime.durable",
+                new BoundedLane.Spec(props.publishQueue(), props.publishBatch(), props.publishWindow(),
+                        props.publishConcurrency(), BoundedLane.Overflow.REJECT),
+                meterRegistry,
+                this::flush,
+                p -> p.done().tryEmitError(new IllegalStateException("Подію не опубліковано")));
+    }
+
+    @PostConstruct
+    void start() {
+        connection = connectionFactory.getReactiveConnection();
+    }
+
+    @PreDestroy
+    void stop() {
+        lane.dispose();
+        if (connection != null) connection.close();
+    }
+
+    Mono<Void> publish(String channel, byte[] message) {
+        return Mono.defer(() -> {
+            final Pending p = new Pending(channel, message, System.nanoTime(), Sinks.one());
+            if (!lane.offer(p)) {
+                return send(channel, message).then();
+            }
+            return p.done().asMono();
+        });
+    }
+
+    private Mono<Void> flush(List<Pending> batch) {
+        batchSize.record(batch.size());
+        return Flux.fromIterable(batch)
+                .flatMap(p -> send(p.channel(), p.message())
+                        .doOnSuccess(n -> {
+                            latency.record(System.nanoTime() - p.enqueuedAt(), TimeUnit.NANOSECONDS);
+                            p.done().tryEmitEmpty();
+                        })
+                        .doOnError(e -> {
+                            failed.increment();
+                            p.done().tryEmitError(e);
+                        })
+                        .onErrorResume(e -> Mono.empty()), batch.size())
+                .then();
+    }
+
+    private Mono<Long> send(String channel, byte[] message) {
+        return connection.pubSubCommands().publish(
+                ByteBuffer.wrap(channel.getBytes(StandardCharsets.UTF_8)), ByteBuffer.wrap(message));
+    }
+
+    private record Pending(String channel, byte[] message, long enqueuedAt, Sinks.One<Void> done) {}
+}
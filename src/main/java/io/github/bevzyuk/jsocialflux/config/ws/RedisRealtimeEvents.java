@@ -1,41 +1,112 @@
 package io.github.bevzyuk.jsocialflux.config.ws;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.GroupPreviewEvent;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemEvent;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FollowerFeedEvent;
 import io.github.bevzyuk.jsocialflux.web.dto.message.MessageDeletedEvent;
+import io.github.bevzyuk.jsocialflux.web.dto.message.ReadAckEvent;
+import io.github.bevzyuk.jsocialflux.web.dto.message.TypingEvent;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
 class RedisRealtimeEvents implements RealtimeEvents {
-    private final ReactiveStringRedisTemplate redis;
+    private final RedisPublishBatcher publisher;
+    private final EphemeralPublisher ephemeral;
     private final ObjectMapper om;
 
     private static String chChat(long id)           { return "chat:" + id; }
     private static String chUserPreview(String u)   {
         return "user:" + u + ":preview"; }
 
+    /** Групові прев'ю: одна публікація на повідомлення, розсилку робить {@link PreviewHub}. */
+    static final String CH_GROUP_PREVIEW = "previews:group";
+
+    static final String CH_FEED = "feed";
+    /** Персональні стрічки: одна публікація на запис автора, розсилку робить {@link FeedHub}. */
+    static final String CH_FOLLOWER_FEED = "feed:followers";
+    /** Автори з pull-стрічкою: підписники слухають їхній канал замість персональної розсилки. */
+    static String chAuthorFeed(long authorId)       { return "author:" + authorId + ":feed"; }
+
     @Override
     public Mono<Void> chatMessage(Long chatId, MessageDTO dto) {
-        return Mono.fromCallable(() -> om.writeValueAsString(dto))
-                .flatMap(json -> redis.convertAndSend(chChat(chatId), json).then());
+        return Mono.fromCallable(() -> om.writeValueAsBytes(dto))
+                .flatMap(json -> publisher.publish(chChat(chatId), json));
     }
 
     @Override
     public Mono<Void> chatMessageDeleted(Long chatId, Long messageId) {
         var ev = new MessageDeletedEvent(messageId, chatId);
-        return Mono.fromCallable(() -> om.writeValueAsString(ev))
-                .flatMap(json -> redis.convertAndSend(chChat(chatId), json).then());
+        return Mono.fromCallable(() -> om.writeValueAsBytes(ev))
+                .flatMap(json -> publisher.publish(chChat(chatId), json));
+    }
+
+    @Override
+    public Mono<Void> chatTyping(Long chatId, String username) {
+        var ev = TypingEvent.of(chatId, username);
+        return Mono.fromCallable(() -> om.writeValueAsBytes(ev))
+                .flatMap(json -> ephemeral.publish(chChat(chatId), json));
+    }
+
+    @Override
+    public Mono<Void> chatRead(Long chatId, Long userId, Long messageId) {
+        var ev = ReadAckEvent.of(chatId, userId, messageId);
+        return Mono.fromCallable(() -> om.writeValueAsBytes(ev))
+                .flatMap(json -> ephemeral.publish(chChat(chatId), json));
     }
 
     @Override
     public Mono<Void> userChatPreview(String username, ChatViewDTO view) {
-        return Mono.fromCallable(() -> om.writeValueAsString(view))
-                .flatMap(json -> redis.convertAndSend(chUserPreview(username), json).then());
+        return Mono.fromCallable(() -> om.writeValueAsBytes(view))
+                .flatMap(json -> publisher.publish(chUserPreview(username), json));
+    }
+
+    @Override
+    public Mono<Void> groupChatPreview(Collection<String> usernames, ChatViewDTO view) {
+        return publishGroupPreview(new GroupPreviewEvent(usernames, view, Map.of()));
+    }
+
+    @Override
+    public Mono<Void> groupChatPreview(Map<String, Integer> unreadByUsername, ChatViewDTO view) {
+        return publishGroupPreview(new GroupPreviewEvent(unreadByUsername.keySet(), view, unreadByUsername));
+    }
+
+    private Mono<Void> publishGroupPreview(GroupPreviewEvent ev) {
+        if (ev.usernames().isEmpty()) return Mono.empty();
+        return Mono.fromCallable(() -> om.writeValueAsBytes(ev))
+                .flatMap(json -> publisher.publish(CH_GROUP_PREVIEW, json));
+    }
+
+    @Override
+    public Mono<Void> feedItem(FeedItemDTO item) {
+        return publishFeedItem(CH_FEED, item);
+    }
+
+    @Override
+    public Mono<Void> followersFeedItem(Collection<String> usernames, FeedItemDTO item) {
+        if (usernames.isEmpty()) return Mono.empty();
+        var ev = new FollowerFeedEvent(usernames, FeedItemEvent.created(item));
+        return Mono.fromCallable(() -> om.writeValueAsBytes(ev))
+                .flatMap(json -> publisher.publish(CH_FOLLOWER_FEED, json));
+    }
+
+    @Override
+    public Mono<Void> authorFeedItem(Long authorId, FeedItemDTO item) {
+        return publishFeedItem(chAuthorFeed(authorId), item);
+    }
+
+    private Mono<Void> publishFeedItem(String channel, FeedItemDTO item) {
+        return Mono.fromCallable(() -> om.writeValueAsBytes(FeedItemEvent.created(item)))
+                .flatMap(json -> publisher.publish(channel, json));
     }
 }
 
@@ -1,9 +1,11 @@
 package io.github.bevzyuk.jsocialflux.infrastructure.persistence;
 
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import lombok.RequiredArgsConstructor;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Repository
@@ -53,4 +55,19 @@ public class FollowRepository {
                 .one()
                 .defaultIfEmpty(false);
     }
+
+    public Flux<UserLiteRec> findFollowers(Long followedId) {
+        return client.sql("""
+                SELECT u.id, u.username, u.avatar
+                  FROM user_following f
+                  JOIN users u ON u.id = f.follower_id
+                 WHERE f.followed_id = :t
+                """)
+                .bind("t", followedId)
+                .map(row -> new UserLiteRec(
+                        row.get("id", Long.class),
+                        row.get("username", String.class),
+                        row.get("avatar", String.class)))
+                .all();
+    }
 }
@@ -0,0 +1,134 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence;
+
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
+import io.github.bevzyuk.jsocialflux.domain.chat.Message;
+import io.github.bevzyuk.jsocialflux.infrastructure.pipeline.BoundedLane;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpStatus;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Group commit для повідомлень: запити з усіх чатів збираються до {@code app.chat.write-batch}
+ * або {@code app.chat.write-linger} і пишуться одним INSERT ... SELECT FROM unnest(...).
+ * Кожен виклик отримує власний рядок за порядковим номером у пачці.
+ * Одночасно пишеться не більше {@code app.chat.write-concurrency} пачок. Якщо пачка не записалась,
+ * її рядки пишуться поодинці, тож помилку отримує лише відправник проблемного рядка.
+ */
+@Repository
+public class MessageBatchWriter {
+
+    private final DatabaseClient client;
+    private final BoundedLane<Pending> lane;
+
+    public MessageBatchWriter(DatabaseClient client, ChatProperties props, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.lane = new BoundedLane<>("chat.write",
+                new BoundedLane.Spec(props.writeQueue(), props.writeBatch(), props.writeLinger(),
+                        props.writeConcurrency(), BoundedLane.Overflow.REJECT),
+                meterRegistry,
+                this::flush,
+                p -> p.result().tryEmitError(unavailable()));
+    }
+
+    @PreDestroy
+    void stop() {
+        lane.close();
+    }
+
+    public Mono<Message> write(Long chatId, Long senderId, String content) {
+        return Mono.defer(() -> {
+            final Pending p = new Pending(chatId, senderId, content, Instant.now(), Sinks.one());
+            if (!lane.offer(p)) {
+                return Mono.error(unavailable());
+            }
+            return p.result().asMono();
+        });
+    }
+
+    private Mono<Void> flush(List<Pending> batch) {
+        return insert(batch)
+                .onErrorResume(e -> batch.size() == 1
+                        ? fail(batch.get(0), e)
+                        : Flux.fromIterable(batch)
+                                .concatMap(p -> insert(List.of(p)).onErrorResume(rowError -> fail(p, rowError)))
+                                .then())
+                .then(Mono.fromRunnable(() -> batch.forEach(p -> p.result().tryEmitError(
+                        new IllegalStateException("Повідомлення не записано")))));
+    }
+
+    private Mono<Void> insert(List<Pending> batch) {
+        final int n = batch.size();
+        final Long[] chats = new Long[n];
+        final Long[] senders = new Long[n];
+        final String[] contents = new String[n];
+        final Long[] sentUs = new Long[n];
+        for (int i = 0; i < n; i++) {
+            final Pending p = batch.get(i);
+            chats[i] = p.chatId();
+            senders[i] = p.senderId();
+            contents[i] = p.content();
+            sentUs[i] = ChronoUnit.MICROS.between(Instant.EPOCH, p.sentAt());
+        }
+
+        return client.sql("""
+                WITH input AS (
+                    SELECT nextval(pg_get_serial_sequence('message', 'id')) AS id,
+                           t.chat_id, t.sender_id, t.content,
+                           TIMESTAMPTZ 'epoch' + t.sent_us * INTERVAL '1 microsecond' AS sent_at,
+                           t.ord
+                      FROM unnest(CAST(:chats AS bigint[]), CAST(:senders AS bigint[]),
+                                  CAST(:contents AS varchar[]), CAST(:sentUs AS bigint[]))
+                           WITH ORDINALITY AS t(chat_id, sender_id, content, sent_us, ord)
+                ), ins AS (
+                    INSERT INTO message (id, chat_id, sender_id, content, sent_at)
+                    SELECT id, chat_id, sender_id, content, sent_at FROM input
+                    RETURNING id
+                )
+                SELECT input.ord, input.id, input.sent_at
+                  FROM input
+                  JOIN ins USING (id)
+                """)
+                .bind("chats", chats)
+                .bind("senders", senders)
+                .bind("contents", contents)
+                .bind("sentUs", sentUs)
+                .map(row -> new Row(row.get("ord", Long.class).intValue() - 1,
+                        row.get("id", Long.class), row.get("sent_at", Instant.class)))
+                .all()
+                .collectList()
+                .doOnNext(rows -> rows.forEach(r -> {
+                    final Pending p = batch.get(r.index());
+                    final Message m = new Message();
+                    m.setId(r.id());
+                    m.setChatId(p.chatId());
+                    m.setSenderId(p.senderId());
+                    m.setContent(p.content());
+                    m.setSentAt(r.sentAt());
+                    p.result().tryEmitValue(m);
+                }))
+                .then();
+    }
+
+    private static Mono<Void> fail(Pending p, Throwable e) {
+        p.result().tryEmitError(e);
+        return Mono.empty();
+    }
+
+    private static ResponseStatusException unavailable() {
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Забагато повідомлень, спробуйте пізніше");
+    }
+
+    private record Row(int index, Long id, Instant sentAt) {}
+
+    private record Pending(Long chatId, Long senderId, String content, Instant sentAt, Sinks.One<Message> result) {}
+}
@@ -0,0 +1,90 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence;
+
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Обслуговування розділів message: на старті й раз на {@code app.chat.partition-check} створює
+ * розділи на {@code partitions-ahead} місяців уперед, від'єднує в архів розділи старші за
+ * {@code archive-after-months} і видаляє архіви старші за {@code drop-archive-after-months}.
+ * Заодно прибирає надгробки видалених повідомлень (V21), старші за {@code tombstone-retention}.
+ * Функції в БД беруть advisory lock, тож кілька вузлів не заважають одне одному.
+ * Помилки логуються й рахуються в {@code chat.message.partition.failures}; кількість рядків, що
+ * потрапили в розділ DEFAULT (V19), видно в {@code chat.message.partition.default.rows} — і те, і те варто алертити.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessagePartitionMaintenance {
+
+    private final DatabaseClient client;
+    private final ChatProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong defaultRows = new AtomicLong();
+    private Counter failures;
+    private Disposable job;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("chat.message.partition.default.rows", defaultRows, AtomicLong::get).register(meterRegistry);
+        failures = Counter.builder("chat.message.partition.failures").register(meterRegistry);
+        job = Flux.interval(Duration.ZERO, props.partitionCheck())
+                .onBackpressureDrop()
+                .concatMap(t -> run().onErrorResume(e -> {
+                    failures.increment();
+                    log.error("Обслуговування розділів message не вдалося", e);
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (job != null) job.dispose();
+    }
+
+    public Mono<Void> run() {
+        Mono<Integer> ensure = call("SELECT message_ensure_partitions(now(), now() + make_interval(months => :months))",
+                props.partitionsAhead());
+        Mono<Integer> archive = props.archiveAfterMonths() > 0
+                ? call("SELECT message_archive_partitions(now() - make_interval(months => :months))", props.archiveAfterMonths())
+                : Mono.empty();
+        Mono<Integer> drop = props.dropArchiveAfterMonths() > 0
+                ? call("SELECT message_drop_archives(now() - make_interval(months => :months))", props.dropArchiveAfterMonths())
+                : Mono.empty();
+        Mono<Long> stray = client.sql("SELECT count(*) FROM message_pdefault")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .doOnNext(n -> {
+                    defaultRows.set(n);
+                    if (n > 0) log.warn("У розділі message_pdefault {} рядків: розділ їхнього місяця не створено вчасно", n);
+                });
+        Mono<Long> tombstones = client.sql("DELETE FROM message_tombstone WHERE deleted_at < now() - make_interval(secs => :secs)")
+                .bind("secs", (double) props.tombstoneRetention().toSeconds())
+                .fetch()
+                .rowsUpdated();
+        return Flux.concat(ensure, archive, drop).then(tombstones).then(stray).then();
+    }
+
+    private Mono<Integer> call(String sql, int months) {
+        return client.sql(sql)
+                .bind("months", months)
+                .map(row -> row.get(0, Integer.class))
+                .one();
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence;
+
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Підтвердження прочитання: для пари (чат, користувач) лишається тільки найбільший messageId,
+ * а раз на {@code app.chat.read-ack-flush} усі пари пишуться одним UPDATE ... FROM unnest(...).
+ * Лічильник непрочитаних перераховується від нового last_read_message_id.
+ * Якщо запис не вдався, пари повертаються в чергу й пишуться наступним циклом.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class ReadAckWriter {
+
+    private final DatabaseClient client;
+    private final ChatProperties props;
+
+    private final Map<Key, Long> pending = new ConcurrentHashMap<>();
+
+    private Disposable pipeline;
+
+    @PostConstruct
+    void start() {
+        pipeline = Flux.interval(props.readAckFlush())
+                .onBackpressureDrop()
+                .concatMap(t -> flush())
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pipeline != null) pipeline.dispose();
+        flush().block(Duration.ofSeconds(5));
+    }
+
+    public void ack(Long chatId, Long userId, Long messageId) {
+        pending.merge(new Key(chatId, userId), messageId, Math::max);
+    }
+
+    private Mono<Void> flush() {
+        if (pending.isEmpty()) return Mono.empty();
+
+        final List<Long> chats = new ArrayList<>();
+        final List<Long> users = new ArrayList<>();
+        final List<Long> ids = new ArrayList<>();
+        for (Key k : List.copyOf(pending.keySet())) {
+            Long id = pending.remove(k);
+            if (id == null) continue;
+            chats.add(k.chatId());
+            users.add(k.userId());
+            ids.add(id);
+        }
+        if (chats.isEmpty()) return Mono.empty();
+
+        // id з клієнта обрізається до останнього повідомлення чату: інакше вигаданий id
+        // назавжди обнулив би лічильник непрочитаних
+        return client.sql("""
+                UPDATE chat_participants cp
+                   SET last_read_message_id = a.message_id,
+                       unread_count = (
+                           SELECT count(*)
+                             FROM message m
+                            WHERE m.chat_id = cp.chat_id
+                              AND m.id > a.message_id
+                              AND m.sender_id IS DISTINCT FROM cp.user_id
+                       )
+                  FROM (
+                        SELECT r.chat_id, r.user_id, LEAST(r.message_id, COALESCE(c.last_message_id, 0)) AS message_id
+                          FROM unnest(CAST(:chats AS bigint[]), CAST(:users AS bigint[]), CAST(:ids AS bigint[]))
+                               AS r(chat_id, user_id, message_id)
+                          JOIN chat c ON c.id = r.chat_id
+                       ) a
+                 WHERE cp.chat_id = a.chat_id
+                   AND cp.user_id = a.user_id
+                   AND a.message_id > COALESCE(cp.last_read_message_id, 0)
+                """)
+                .bind("chats", chats.toArray(Long[]::new))
+                .bind("users", users.toArray(Long[]::new))
+                .bind("ids", ids.toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated()
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Не вдалося записати {} підтверджень прочитання, повторимо на наступному циклі", chats.size(), e);
+                    for (int i = 0; i < chats.size(); i++) {
+                        ack(chats.get(i), users.get(i), ids.get(i));
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private record Key(Long chatId, Long userId) {}
+}
@@ -0,0 +1,50 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence;
+
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@RequiredArgsConstructor
+public class TimelineRepository {
+
+    private final ReactiveStringRedisTemplate redis;
+
+    private static String key(long userId) { return "timeline:" + userId; }
+
+    public static String member(FeedItemDTO.FeedType type, long id) {
+        return type.name() + ":" + id;
+    }
+
+    public Mono<Void> push(long userId, String member, long scoreMs, int maxSize) {
+        final String k = key(userId);
+        return redis.opsForZSet().add(k, member, scoreMs)
+                .then(redis.opsForZSet().removeRange(k, Range.closed(0L, -(maxSize + 1L))))
+                .then();
+    }
+
+    public Mono<Void> remove(long userId, String member) {
+        return redis.opsForZSet().remove(key(userId), member).then();
+    }
+
+    public Flux<TypedTuple<String>> findFirst(long userId, int limit) {
+        return redis.opsForZSet().reverseRangeWithScores(key(userId), Range.closed(0L, limit - 1L));
+    }
+
+    public Flux<TypedTuple<String>> findAt(long userId, long scoreMs) {
+        return redis.opsForZSet().rangeByScoreWithScores(key(userId),
+                Range.closed((double) scoreMs, (double) scoreMs));
+    }
+
+    public Flux<TypedTuple<String>> findBefore(long userId, long scoreMs, int limit) {
+        return redis.opsForZSet().reverseRangeByScoreWithScores(key(userId),
+                Range.of(Range.Bound.unbounded(), Range.Bound.exclusive((double) scoreMs)),
+                Limit.limit().count(limit));
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed;
+
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+class FeedEngineConfig {
+
+    @Bean
+    @Primary
+    FeedPageEngine feedPageEngine(FeedProperties props,
+                                  FeedItemTableEngine table,
+                                  FeedIndexMergeEngine merge) {
+        return props.engine() == FeedProperties.Engine.MERGE ? merge : table;
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Два keyset-потоки по idx_post_created_id_desc та idx_photo_uploaded_id_desc,
+ * злиті в Java: кожна сторона читає не більше {@code limit} рядків з індексу, UNION не сортується.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedIndexMergeEngine implements FeedPageEngine {
+
+    private static final int POST_ORDER = 2;
+    private static final int PHOTO_ORDER = 1;
+
+    private static final Comparator<FeedItemRow> ORDER = Comparator
+            .comparing(FeedItemRow::createdAt)
+            .thenComparingInt(r -> "POST".equals(r.feedType()) ? POST_ORDER : PHOTO_ORDER)
+            .thenComparingLong(FeedItemRow::id)
+            .reversed();
+
+    private final FeedRepository repo;
+
+    @Override
+    public Flux<FeedItemRow> page(@Nullable Instant cursorTs, int cursorOrder, long cursorId, int limit) {
+        final Flux<FeedItemRow> posts;
+        final Flux<FeedItemRow> photos;
+        if (cursorTs == null) {
+            posts  = repo.findFirstPostRows(limit);
+            photos = repo.findFirstPhotoRows(limit);
+        } else {
+            // (ts, order, id) < (cursorTs, cursorOrder, cursorId) для сталого order зводиться до (ts, id) < (cursorTs, tie)
+            posts  = repo.findPostRowsBefore(cursorTs, tieId(POST_ORDER, cursorOrder, cursorId), limit);
+            photos = repo.findPhotoRowsBefore(cursorTs, tieId(PHOTO_ORDER, cursorOrder, cursorId), limit);
+        }
+        return Flux.mergeComparing(ORDER, posts, photos).take(limit);
+    }
+
+    private static long tieId(int sideOrder, int cursorOrder, long cursorId) {
+        if (sideOrder < cursorOrder) return Long.MAX_VALUE;
+        if (sideOrder == cursorOrder) return cursorId;
+        return 0L;
+    }
+}
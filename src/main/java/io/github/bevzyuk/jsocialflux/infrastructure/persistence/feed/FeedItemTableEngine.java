@@ -0,0 +1,24 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+@Component
+@RequiredArgsConstructor
+public class FeedItemTableEngine implements FeedPageEngine {
+
+    private final FeedRepository repo;
+
+    @Override
+    public Flux<FeedItemRow> page(@Nullable Instant cursorTs, int cursorOrder, long cursorId, int limit) {
+        return (cursorTs == null)
+                ? repo.findFirstPage(limit)
+                : repo.findPageBefore(cursorTs, cursorOrder, cursorId, limit);
+    }
+}
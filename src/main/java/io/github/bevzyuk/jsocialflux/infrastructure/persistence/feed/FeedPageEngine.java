@@ -0,0 +1,16 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed;
+
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+/**
+ * Джерело сторінки глобальної стрічки у порядку (created_at, feed_order, id) DESC.
+ * {@code cursorTs == null} означає першу сторінку.
+ */
+public interface FeedPageEngine {
+
+    Flux<FeedItemRow> page(@Nullable Instant cursorTs, int cursorOrder, long cursorId, int limit);
+}
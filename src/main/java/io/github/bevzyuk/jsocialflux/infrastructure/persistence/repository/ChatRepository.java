@@ -1,13 +1,14 @@
 package io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository;
 
 import io.github.bevzyuk.jsocialflux.domain.chat.Chat;
-import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
-import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatPreviewRec;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatMetaRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatMembersRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatSyncRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ParticipantPreviewRec;
 
 import java.time.Instant;
 
@@ -15,42 +16,24 @@ public interface ChatRepository extends ReactiveCrudRepository<Chat, Long> {
 
     @Query("""
         SELECT
-            c.id AS chat_id,
-            CASE WHEN c.is_group THEN c.name ELSE other_u.username END AS display_name,
-            CASE WHEN c.is_group THEN c.avatar ELSE other_u.avatar END   AS display_avatar,
-            COALESCE(c.is_group, FALSE)                                  AS is_group,
-            lm.content                                                   AS last_message,
-            COALESCE(lm.sent_at, c.created_at)                           AS last_sent_at
-        FROM chat c
-        JOIN chat_participants cp ON cp.chat_id = c.id
-        JOIN users me ON me.id = cp.user_id AND me.username = :currentUsername
-        LEFT JOIN LATERAL (
-            SELECT m.content, m.sent_at
-            FROM message m
-            WHERE m.chat_id = c.id
-            ORDER BY m.sent_at DESC, m.id DESC
-            LIMIT 1
-        ) lm ON TRUE
-        LEFT JOIN LATERAL (
-            SELECT u.username, u.avatar
-            FROM chat_participants cp2
-            JOIN users u ON u.id = cp2.user_id
-            WHERE cp2.chat_id = c.id AND u.username <> :currentUsername
-            LIMIT 1
-        ) other_u ON TRUE
-    
-        WHERE
-            (c.is_group = TRUE OR lm.sent_at IS NOT NULL)
-    
-            AND (
-                COALESCE(lm.sent_at, c.created_at) < :cursorTime
-                OR (COALESCE(lm.sent_at, c.created_at) = :cursorTime AND c.id < :cursorId)
-            )
-    
-        ORDER BY COALESCE(lm.sent_at, c.created_at) DESC, c.id DESC
+            c.id                               AS chat_id,
+            COALESCE(c.is_group, FALSE)        AS is_group,
+            c.name                             AS group_name,
+            c.avatar                           AS group_avatar,
+            CASE WHEN c.is_group THEN NULL
+                 ELSE chat_peer_id(c.private_key, cp.user_id) END AS other_user_id,
+            c.last_message                     AS last_message,
+            cp.last_sent_at                    AS last_sent_at,
+            cp.unread_count                    AS unread_count
+        FROM chat_participants cp
+        JOIN chat c ON c.id = cp.chat_id
+        WHERE cp.user_id = :userId
+          AND (c.is_group = TRUE OR c.last_message_id IS NOT NULL)
+          AND (cp.last_sent_at, cp.chat_id) < (:cursorTime, :cursorId)
+        ORDER BY cp.last_sent_at DESC, cp.chat_id DESC
         LIMIT :limit
     """)
-    Flux<ChatViewDTO> findChatViewsForUserSlice(String currentUsername, Instant cursorTime, Long cursorId, long limit);
+    Flux<ChatPreviewRec> findChatPreviewsForUserSlice(Long userId, Instant cursorTime, Long cursorId, long limit);
 
 
     @Query("""
@@ -78,66 +61,99 @@ public interface ChatRepository extends ReactiveCrudRepository<Chat, Long> {
         """)
     Mono<Long> insertGroupReturnId(String name);
 
+    // Один INSERT на весь список; повертає лише тих, кого справді додано
     @Query("""
         INSERT INTO chat_participants (chat_id, user_id)
-        VALUES (:chatId, :userId)
+        SELECT :chatId, u.id
+        FROM unnest(CAST(:userIds AS bigint[])) AS u(id)
         ON CONFLICT DO NOTHING
+        RETURNING user_id
         """)
-    Mono<Void> addParticipant(Long chatId, Long userId);
+    Flux<Long> addParticipants(Long chatId, Long[] userIds);
 
     @Query("""
         SELECT
-            c.id AS chat_id,
-            CASE WHEN c.is_group THEN c.name ELSE other_u.username END AS display_name,
-            CASE WHEN c.is_group THEN c.avatar ELSE other_u.avatar END AS display_avatar,
-            COALESCE(c.is_group, FALSE) AS is_group,
-            lm.content AS last_message,
-            COALESCE(lm.sent_at, c.created_at) AS last_sent_at
+            c.id                               AS chat_id,
+            COALESCE(c.is_group, FALSE)        AS is_group,
+            c.name                             AS group_name,
+            c.avatar                           AS group_avatar,
+            CASE WHEN c.is_group THEN NULL
+                 ELSE chat_peer_id(c.private_key, me.id) END AS other_user_id,
+            c.last_message                     AS last_message,
+            c.last_sent_at                     AS last_sent_at,
+            cp.unread_count                    AS unread_count
         FROM chat c
         JOIN chat_participants cp ON cp.chat_id = c.id
         JOIN users me ON me.id = cp.user_id AND me.username = :currentUsername
-        LEFT JOIN LATERAL (
-            SELECT m.content, m.sent_at
-            FROM message m
-            WHERE m.chat_id = c.id
-            ORDER BY m.sent_at DESC, m.id DESC
-            LIMIT 1
-        ) lm ON TRUE
-        LEFT JOIN LATERAL (
-            SELECT u.username, u.avatar
-            FROM chat_participants cp2
-            JOIN users u ON u.id = cp2.user_id
-            WHERE cp2.chat_id = c.id AND u.username <> :currentUsername
-            LIMIT 1
-        ) other_u ON TRUE
         WHERE c.id = :chatId
     """)
-    Mono<ChatViewDTO> findChatViewForUserById(Long chatId, String currentUsername);
+    Mono<ChatPreviewRec> findChatPreviewForUserById(Long chatId, String currentUsername);
 
 
 
-    @Query("SELECT EXISTS (SELECT 1 FROM chat_participants WHERE chat_id = :chatId AND user_id = :userId)")
-    Mono<Boolean> isParticipant(Long chatId, Long userId);
-
-    @Query("SELECT is_group AS is_group, name, avatar FROM chat WHERE id = :chatId")
-    Mono<ChatMetaRec> findMeta(Long chatId);
-
     @Query("""
-    SELECT u.id       AS id,
-           u.username AS username,
-           u.avatar   AS avatar
-      FROM chat_participants cp
-      JOIN users u ON u.id = cp.user_id
-     WHERE cp.chat_id = :chatId AND u.id <> :currentUserId
-     LIMIT 1
+        SELECT
+            cp.user_id                         AS viewer_id,
+            c.id                               AS chat_id,
+            COALESCE(c.is_group, FALSE)        AS is_group,
+            c.name                             AS group_name,
+            c.avatar                           AS group_avatar,
+            CASE WHEN c.is_group THEN NULL
+                 ELSE chat_peer_id(c.private_key, cp.user_id) END AS other_user_id,
+            c.last_message                     AS last_message,
+            c.last_sent_at                     AS last_sent_at,
+            cp.unread_count                    AS unread_count
+        FROM chat c
+        JOIN chat_participants cp ON cp.chat_id = c.id
+        WHERE c.id = :chatId
     """)
-    Mono<UserLiteRec> findOtherParticipant(Long chatId, Long currentUserId);
+    Flux<ParticipantPreviewRec> findPreviewsForParticipants(Long chatId);
 
     @Query("""
-        SELECT u.username
-          FROM chat_participants cp
-          JOIN users u ON u.id = cp.user_id
-         WHERE cp.chat_id = :chatId
+        SELECT c.is_group AS is_group,
+               c.name,
+               c.avatar,
+               ARRAY(SELECT cp.user_id FROM chat_participants cp WHERE cp.chat_id = c.id) AS member_ids
+          FROM chat c
+         WHERE c.id = :chatId
         """)
-    Flux<String> findParticipantUsernames(Long chatId);
+    Mono<ChatMembersRec> findMembers(Long chatId);
+
+    // прев'ю змінених чатів, нові повідомлення та надгробки видалених одним проходом по чатах учасника
+    @Query("""
+        SELECT s.*
+          FROM (
+                SELECT 'P'                                AS kind,
+                       c.id                               AS chat_id,
+                       c.last_message_id                  AS id,
+                       c.last_message                     AS content,
+                       cp.last_sent_at                    AS sent_at,
+                       CASE WHEN c.is_group THEN NULL
+                            ELSE chat_peer_id(c.private_key, cp.user_id) END AS user_id,
+                       COALESCE(c.is_group, FALSE)        AS is_group,
+                       c.name                             AS group_name,
+                       c.avatar                           AS group_avatar,
+                       cp.unread_count                    AS unread_count
+                  FROM chat_participants cp
+                  JOIN chat c ON c.id = cp.chat_id
+                 WHERE cp.user_id = :userId
+                   AND cp.last_sent_at >= :sinceTime
+                   AND (c.is_group = TRUE OR c.last_message_id IS NOT NULL)
+                UNION ALL
+                (SELECT 'M', m.chat_id, m.id, m.content, m.sent_at, m.sender_id, NULL, NULL, NULL, NULL
+                   FROM message m
+                  WHERE m.chat_id IN (SELECT cp.chat_id FROM chat_participants cp WHERE cp.user_id = :userId)
+                    AND m.id > :sinceId
+                    AND m.sent_at >= :sinceTime
+                  ORDER BY m.id
+                  LIMIT :limit)
+                UNION ALL
+                SELECT 'D', t.chat_id, t.id, NULL, t.deleted_at, NULL, NULL, NULL, NULL, NULL
+                  FROM message_tombstone t
+                 WHERE t.chat_id IN (SELECT cp.chat_id FROM chat_participants cp WHERE cp.user_id = :userId)
+                   AND t.deleted_at >= :sinceTime
+               ) s
+         ORDER BY s.kind DESC, s.id
+    """)
+    Flux<ChatSyncRec> findChangesSince(Long userId, Long sinceId, Instant sinceTime, long limit);
 }
@@ -1,10 +1,10 @@
 package io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository;
 
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedItemRow;
 import io.github.bevzyuk.jsocialflux.domain.post.Post;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
-import org.springframework.lang.Nullable;
 import reactor.core.publisher.Flux;
 
 import java.time.Instant;
@@ -14,52 +14,202 @@ public interface FeedRepository
 
     @Query("""
         SELECT f.id,
-               f.feed_type,
-               f.username,
-               f.avatar,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
                f.content,
                f.image_url,
                f.created_at,
                f.edited
-        FROM (
-              SELECT p.id,
-                     'POST'  AS feed_type,
-                     2       AS feed_order,
-                     u.username,
-                     u.avatar,
-                     p.content,
-                     NULL     AS image_url,
-                     p.created_at,
-                     (p.edited_at IS NOT NULL) AS edited
-                FROM post p
-                JOIN users u ON u.id = p.user_id
+          FROM feed_item f
+         ORDER BY f.created_at DESC, f.feed_order DESC, f.id DESC
+         LIMIT $1
+        """)
+    Flux<FeedItemRow> findFirstPage(int limit);
+
+    @Query("""
+        SELECT f.id,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
+               f.content,
+               f.image_url,
+               f.created_at,
+               f.edited
+          FROM feed_item f
+         WHERE (f.created_at, f.feed_order, f.id) < ($1, $2, $3)
+         ORDER BY f.created_at DESC, f.feed_order DESC, f.id DESC
+         LIMIT $4
+        """)
+    Flux<FeedItemRow> findPageBefore(Instant cursorTs,
+                                     int cursorOrder,
+                                     long cursorId,
+                                     int limit);
+
+    @Query("""
+        SELECT f.id,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
+               f.content,
+               f.image_url,
+               f.created_at,
+               f.edited
+          FROM feed_item f
+         WHERE (f.feed_order = 2 AND f.id = ANY($1))
+            OR (f.feed_order = 1 AND f.id = ANY($2))
+        """)
+    Flux<FeedItemRow> findByKeys(Long[] postIds, Long[] photoIds);
+
+    @Query("""
+        SELECT f.id,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
+               f.content,
+               f.image_url,
+               f.created_at,
+               f.edited
+          FROM feed_item f
+         WHERE f.user_id = $1
+         ORDER BY f.created_at DESC, f.feed_order DESC, f.id DESC
+         LIMIT $2
+        """)
+    Flux<FeedItemRow> findFirstPageByAuthor(long authorId, int limit);
+
+    @Query("""
+        SELECT f.id,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
+               f.content,
+               f.image_url,
+               f.created_at,
+               f.edited
+          FROM feed_item f
+         WHERE f.user_id = $1
+           AND (f.created_at, f.feed_order, f.id) < ($2, $3, $4)
+         ORDER BY f.created_at DESC, f.feed_order DESC, f.id DESC
+         LIMIT $5
+        """)
+    Flux<FeedItemRow> findPageByAuthorBefore(long authorId,
+                                             Instant cursorTs,
+                                             int cursorOrder,
+                                             long cursorId,
+                                             int limit);
+
+    // feed_item і курсор тримають час з точністю до мілісекунди, тож порядок тут — (date_trunc(ms), id).
+    // Підзапит іде індексом до limit-го рядка й бере його мілісекунду: граничну мілісекунду читаємо цілком і досортовуємо.
+    @Query("""
+        SELECT p.id,
+               'POST'                    AS feed_type,
+               p.user_id,
+               p.content,
+               NULL                      AS image_url,
+               date_trunc('milliseconds', p.created_at) AS created_at,
+               (p.edited_at IS NOT NULL) AS edited
+          FROM post p
+         WHERE p.created_at >= COALESCE((
+                   SELECT date_trunc('milliseconds', b.created_at)
+                     FROM post b
+                    ORDER BY b.created_at DESC, b.id DESC
+                   OFFSET $1 - 1 LIMIT 1), '-infinity')
+         ORDER BY date_trunc('milliseconds', p.created_at) DESC, p.id DESC
+         LIMIT $1
+        """)
+    Flux<FeedItemRow> findFirstPostRows(int limit);
 
-              UNION ALL
+    @Query("""
+        SELECT p.id,
+               'POST'                    AS feed_type,
+               p.user_id,
+               p.content,
+               NULL                      AS image_url,
+               date_trunc('milliseconds', p.created_at) AS created_at,
+               (p.edited_at IS NOT NULL) AS edited
+          FROM post p
+         WHERE p.created_at < $1 + INTERVAL '1 millisecond'
+           AND (date_trunc('milliseconds', p.created_at), p.id) < ($1, $2)
+           AND p.created_at >= COALESCE((
+                   SELECT date_trunc('milliseconds', b.created_at)
+                     FROM post b
+                    WHERE b.created_at < $1 + INTERVAL '1 millisecond'
+                      AND (date_trunc('milliseconds', b.created_at), b.id) < ($1, $2)
+                    ORDER BY b.created_at DESC, b.id DESC
+                   OFFSET $3 - 1 LIMIT 1), '-infinity')
+         ORDER BY date_trunc('milliseconds', p.created_at) DESC, p.id DESC
+         LIMIT $3
+        """)
+    Flux<FeedItemRow> findPostRowsBefore(Instant cursorTs, long tieId, int limit);
 
-              SELECT ph.id,
-                     'PHOTO' AS feed_type,
-                     1       AS feed_order,
-                     u.username,
-                     u.avatar,
-                     ph.description AS content,
-                     ph.url        AS image_url,
-                     ph.uploaded_at AS created_at,
-                     FALSE         AS edited
-                FROM photo ph
-                JOIN users u ON u.id = ph.user_id
-        ) f
-        WHERE
-              $1 IS NULL                                        
-           OR  f.created_at <  $1                               
-           OR (f.created_at =  $1 AND f.feed_order <  $2)        
-           OR (f.created_at =  $1 AND f.feed_order = $2 AND f.id < $3)  
-        ORDER BY f.created_at DESC, f.feed_order DESC, f.id DESC
-        LIMIT  $4
+    @Query("""
+        SELECT ph.id,
+               'PHOTO'         AS feed_type,
+               ph.user_id,
+               ph.description  AS content,
+               ph.url          AS image_url,
+               date_trunc('milliseconds', ph.uploaded_at) AS created_at,
+               FALSE           AS edited
+          FROM photo ph
+         WHERE ph.uploaded_at >= COALESCE((
+                   SELECT date_trunc('milliseconds', b.uploaded_at)
+                     FROM photo b
+                    ORDER BY b.uploaded_at DESC, b.id DESC
+                   OFFSET $1 - 1 LIMIT 1), '-infinity')
+         ORDER BY date_trunc('milliseconds', ph.uploaded_at) DESC, ph.id DESC
+         LIMIT $1
         """)
-    Flux<FeedItemRow> findPage(@Nullable Instant cursorTs,
-                               @Nullable Integer cursorOrder,
-                               @Nullable Long cursorId,
-                               int limit);
+    Flux<FeedItemRow> findFirstPhotoRows(int limit);
 
+    @Query("""
+        SELECT ph.id,
+               'PHOTO'         AS feed_type,
+               ph.user_id,
+               ph.description  AS content,
+               ph.url          AS image_url,
+               date_trunc('milliseconds', ph.uploaded_at) AS created_at,
+               FALSE           AS edited
+          FROM photo ph
+         WHERE ph.uploaded_at < $1 + INTERVAL '1 millisecond'
+           AND (date_trunc('milliseconds', ph.uploaded_at), ph.id) < ($1, $2)
+           AND ph.uploaded_at >= COALESCE((
+                   SELECT date_trunc('milliseconds', b.uploaded_at)
+                     FROM photo b
+                    WHERE b.uploaded_at < $1 + INTERVAL '1 millisecond'
+                      AND (date_trunc('milliseconds', b.uploaded_at), b.id) < ($1, $2)
+                    ORDER BY b.uploaded_at DESC, b.id DESC
+                   OFFSET $3 - 1 LIMIT 1), '-infinity')
+         ORDER BY date_trunc('milliseconds', ph.uploaded_at) DESC, ph.id DESC
+         LIMIT $3
+        """)
+    Flux<FeedItemRow> findPhotoRowsBefore(Instant cursorTs, long tieId, int limit);
 
+    @Query("""
+        SELECT f.id,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
+               f.content,
+               f.image_url,
+               f.created_at,
+               f.edited,
+               f.rank_score
+          FROM feed_item f
+         ORDER BY f.rank_score DESC, f.feed_order DESC, f.id DESC
+         LIMIT $1
+        """)
+    Flux<TopFeedItemRow> findTopFirstPage(int limit);
+
+    @Query("""
+        SELECT f.id,
+               CASE f.feed_order WHEN 2 THEN 'POST' ELSE 'PHOTO' END AS feed_type,
+               f.user_id,
+               f.content,
+               f.image_url,
+               f.created_at,
+               f.edited,
+               f.rank_score
+          FROM feed_item f
+         WHERE (f.rank_score, f.feed_order, f.id) < ($1, $2, $3)
+         ORDER BY f.rank_score DESC, f.feed_order DESC, f.id DESC
+         LIMIT $4
+        """)
+    Flux<TopFeedItemRow> findTopPageBefore(double cursorScore,
+                                           int cursorOrder,
+                                           long cursorId,
+                                           int limit);
 }
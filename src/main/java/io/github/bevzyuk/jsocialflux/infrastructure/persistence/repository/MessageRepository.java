@@ -1,7 +1,8 @@
 package io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository;
 
 import io.github.bevzyuk.jsocialflux.domain.chat.Message;
-import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.MessageRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.MessageSearchRec;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -16,24 +17,66 @@ public interface MessageRepository extends ReactiveCrudRepository<Message, Long>
                m.chat_id    AS chat_id,
                m.content,
                m.sent_at    AS sent_at,
-               u.username   AS sender_username,
-               u.avatar     AS sender_avatar
+               m.sender_id  AS sender_id
           FROM message m
-          JOIN users u ON u.id = m.sender_id
          WHERE m.chat_id = :chatId
            AND (m.sent_at < :cursorTime
                 OR (m.sent_at = :cursorTime AND m.id < :cursorId))
          ORDER BY m.sent_at DESC, m.id DESC
          LIMIT :limit
         """)
-    Flux<MessageDTO> findSlice(Long chatId, Instant cursorTime, Long cursorId, long limit);
+    Flux<MessageRec> findSlice(Long chatId, Instant cursorTime, Long cursorId, long limit);
 
+    // разом із видаленням пише надгробок для дельта-синхронізації (V21)
     @Query("""
-        SELECT m.id
-          FROM message m
-         WHERE m.chat_id = :chatId
-         ORDER BY m.sent_at DESC, m.id DESC
-         LIMIT 1
+        WITH d AS (
+            DELETE FROM message m
+             WHERE m.id = :id
+               AND m.sent_at = :sentAt
+            RETURNING m.chat_id, m.id,
+                      EXISTS (SELECT 1 FROM chat c WHERE c.id = m.chat_id AND c.last_message_id = m.id) AS was_last
+        ), t AS (
+            INSERT INTO message_tombstone (chat_id, id)
+            SELECT d.chat_id, d.id FROM d
+            ON CONFLICT DO NOTHING
+        )
+        SELECT d.was_last FROM d
+        """)
+    Mono<Boolean> deleteReturningWasLast(Long id, Instant sentAt);
+
+    // ранг і мілісекундна мітка рахуються один раз у підзапиті; курсор (rank, sent_ms, id)
+    @Query("""
+        SELECT h.id, h.chat_id, h.content, h.sent_at, h.sender_id, h.rank
+          FROM (
+                SELECT m.id, m.chat_id, m.content, m.sent_at, m.sender_id,
+                       ts_rank(m.content_tsv, q.q)          AS rank,
+                       date_trunc('milliseconds', m.sent_at) AS sent_ms
+                  FROM message m,
+                       websearch_to_tsquery('simple', :query) AS q(q)
+                 WHERE m.chat_id = :chatId
+                   AND m.content_tsv @@ q.q
+               ) h
+         WHERE (h.rank, h.sent_ms, h.id) < (:cursorRank, :cursorTime, :cursorId)
+         ORDER BY h.rank DESC, h.sent_ms DESC, h.id DESC
+         LIMIT :limit
+        """)
+    Flux<MessageSearchRec> searchInChat(Long chatId, String query, float cursorRank, Instant cursorTime, long cursorId, long limit);
+
+    // доступ перевіряється самим запитом: лише чати, де користувач є учасником
+    @Query("""
+        SELECT h.id, h.chat_id, h.content, h.sent_at, h.sender_id, h.rank
+          FROM (
+                SELECT m.id, m.chat_id, m.content, m.sent_at, m.sender_id,
+                       ts_rank(m.content_tsv, q.q)          AS rank,
+                       date_trunc('milliseconds', m.sent_at) AS sent_ms
+                  FROM message m,
+                       websearch_to_tsquery('simple', :query) AS q(q)
+                 WHERE m.chat_id IN (SELECT cp.chat_id FROM chat_participants cp WHERE cp.user_id = :userId)
+                   AND m.content_tsv @@ q.q
+               ) h
+         WHERE (h.rank, h.sent_ms, h.id) < (:cursorRank, :cursorTime, :cursorId)
+         ORDER BY h.rank DESC, h.sent_ms DESC, h.id DESC
+         LIMIT :limit
         """)
-    Mono<Long> findLastId(Long chatId);
-}
\ No newline at end of file
+    Flux<MessageSearchRec> searchForUser(Long userId, String query, float cursorRank, Instant cursorTime, long cursorId, long limit);
+}
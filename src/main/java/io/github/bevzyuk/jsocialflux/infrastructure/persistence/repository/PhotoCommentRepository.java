@@ -1,7 +1,7 @@
 package io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository;
 
 import io.github.bevzyuk.jsocialflux.domain.photo.PhotoComment;
-import io.github.bevzyuk.jsocialflux.web.dto.photoComment.response.PhotoCommentDTO;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.CommentRec;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -14,10 +14,8 @@ public interface PhotoCommentRepository extends ReactiveCrudRepository<PhotoComm
     SELECT c.id,
            c.content,
            c.created_at                  AS created_at,
-           u.username                    AS author_username,
-           u.avatar                      AS author_avatar
+           c.user_id                     AS user_id
       FROM photo_comment c
-      JOIN users u ON u.id = c.user_id
      WHERE c.photo_id = :photoId
        AND ( :ts IS NULL
              OR c.created_at < :ts
@@ -25,5 +23,5 @@ public interface PhotoCommentRepository extends ReactiveCrudRepository<PhotoComm
      ORDER BY c.created_at DESC, c.id DESC
      LIMIT :limit
     """)
-    Flux<PhotoCommentDTO> findPageByPhotoIdBefore(Long photoId, Instant ts, long tieId, long limit);
+    Flux<CommentRec> findPageByPhotoIdBefore(Long photoId, Instant ts, long tieId, long limit);
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository;
 
 import io.github.bevzyuk.jsocialflux.domain.post.PostComment;
-import io.github.bevzyuk.jsocialflux.web.dto.postComment.response.PostCommentDTO;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.CommentRec;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
@@ -14,10 +14,8 @@ public interface PostCommentRepository extends ReactiveCrudRepository<PostCommen
     SELECT c.id,
            c.content,
            c.created_at                  AS created_at,
-           u.username                    AS author_username,
-           u.avatar                      AS author_avatar
+           c.user_id                     AS user_id
       FROM post_comment c
-      JOIN users u ON u.id = c.user_id
      WHERE c.post_id = :postId
        AND ( :ts IS NULL
              OR c.created_at < :ts
@@ -25,5 +23,5 @@ public interface PostCommentRepository extends ReactiveCrudRepository<PostCommen
      ORDER BY c.created_at DESC, c.id DESC
      LIMIT :limit
     """)
-    Flux<PostCommentDTO> findPageByPostIdBefore(Long postId, Instant ts, long tieId, long limit);
+    Flux<CommentRec> findPageByPostIdBefore(Long postId, Instant ts, long tieId, long limit);
 }
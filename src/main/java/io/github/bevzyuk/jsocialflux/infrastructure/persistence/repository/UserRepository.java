@@ -3,6 +3,7 @@ package io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository;
 import io.github.bevzyuk.jsocialflux.web.dto.user.UserCardDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.user.UserStatsDTO;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
@@ -41,6 +42,42 @@ public interface UserRepository extends ReactiveCrudRepository<User, Long> {
 
     Mono<Boolean> existsByUsername(String username);
 
+    @Query("SELECT id, username, avatar FROM users WHERE id = ANY(:ids)")
+    Flux<UserLiteRec> findLiteByIds(Long[] ids);
+
+    @Query("SELECT id, username, avatar FROM users WHERE username = ANY(:names)")
+    Flux<UserLiteRec> findLiteByUsernames(String[] names);
+
+    // присутність бачать лише сам користувач, співрозмовники зі спільних чатів і зв'язки в графі підписок
+    @Query("""
+    SELECT u.username
+      FROM users u
+     WHERE u.username = ANY(:names)
+       AND (u.id = :viewerId
+            OR EXISTS (SELECT 1
+                         FROM user_following f
+                        WHERE (f.follower_id = :viewerId AND f.followed_id = u.id)
+                           OR (f.follower_id = u.id AND f.followed_id = :viewerId))
+            OR EXISTS (SELECT 1
+                         FROM chat_participants mine
+                         JOIN chat_participants theirs ON theirs.chat_id = mine.chat_id
+                        WHERE mine.user_id = :viewerId
+                          AND theirs.user_id = u.id))
+    """)
+    Flux<String> findPresenceVisibleUsernames(Long viewerId, String[] names);
+
+    @Query("SELECT followers_cnt FROM users WHERE id = :id")
+    Mono<Long> findFollowersCnt(Long id);
+
+    @Query("""
+    SELECT u.id
+      FROM user_following f
+      JOIN users u ON u.id = f.followed_id
+     WHERE f.follower_id = :followerId
+       AND u.followers_cnt >= :threshold
+    """)
+    Flux<Long> findFollowedIdsWithFollowersAtLeast(Long followerId, long threshold);
+
     @Query("""
     SELECT u.id, u.username, u.avatar
       FROM users base
@@ -0,0 +1,172 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.pipeline;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Обмежена черга з фоновим обробником: елементи збираються в пачки до {@link Spec#batch()} або {@link Spec#linger()}
+ * і передаються в {@code flush}, одночасно не більше {@link Spec#concurrency()} пачок.
+ * Запис у чергу серіалізовано замком, без активного очікування на потоках event loop.
+ * Пачки беруться з черги лише за запитом обробника, тож повільний споживач не переповнює оператор.
+ * Якщо конвеєр усе ж впаде, він перепідписується, а елементи, які вже не будуть оброблені, віддаються в {@code lost}.
+ * Метрики: {@code lane.queue} (глибина черги) і {@code lane.dropped} (елементи, що не дійшли до обробника), з тегом {@code lane}.
+ */
+@Slf4j
+public final class BoundedLane<T> {
+
+    public enum Overflow {
+        /** Новий елемент не приймається, {@link #offer} повертає {@code false}. */
+        REJECT,
+        /** Найстаріший елемент черги віддається в {@code lost}, новий займає його місце. */
+        DROP_OLDEST
+    }
+
+    /** {@code capacity <= 0} — черга без межі; {@code batch <= 1} — кожен елемент окремою пачкою. */
+    public record Spec(int capacity, int batch, Duration linger, int concurrency, Overflow overflow) {}
+
+    private final String name;
+    private final Spec spec;
+    private final Function<List<T>, Mono<Void>> flush;
+    private final Consumer<T> lost;
+    private final Counter dropped;
+    private final Object lock = new Object();
+    /** Уже взяті з черги, але ще не оброблені: після падіння конвеєра їх теж треба віддати в {@code lost}. */
+    private final Set<T> inFlight = ConcurrentHashMap.newKeySet();
+
+    private Queue<T> queue;
+    private Sinks.Many<T> sink;
+    private Disposable pipeline;
+    private boolean closed;
+
+    public BoundedLane(String name,
+                       Spec spec,
+                       MeterRegistry meterRegistry,
+                       Function<List<T>, Mono<Void>> flush,
+                       Consumer<T> lost) {
+        this.name = name;
+        this.spec = spec;
+        this.flush = flush;
+        this.lost = lost;
+        Gauge.builder("lane.queue", this, BoundedLane::depth)
+                .tag("lane", name)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("lane.dropped")
+                .tag("lane", name)
+                .register(meterRegistry);
+        synchronized (lock) {
+            open();
+        }
+    }
+
+    /** {@code false}, якщо елемент не прийнято; у {@code lost} він тоді не потрапляє. */
+    public boolean offer(T item) {
+        T evicted = null;
+        boolean accepted;
+        synchronized (lock) {
+            if (closed) return false;
+            Sinks.EmitResult r = sink.tryEmitNext(item);
+            if (r == Sinks.EmitResult.FAIL_OVERFLOW && spec.overflow() == Overflow.DROP_OLDEST) {
+                evicted = queue.poll();
+                r = sink.tryEmitNext(item);
+            }
+            accepted = r.isSuccess();
+        }
+        if (evicted != null) discard(evicted);
+        if (!accepted) dropped.increment();
+        return accepted;
+    }
+
+    public int depth() {
+        Queue<T> q = queue;
+        return q == null ? 0 : q.size();
+    }
+
+    /** Решта черги дописується обробником; нові елементи більше не приймаються. */
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            sink.tryEmitComplete();
+        }
+    }
+
+    /** Як {@link #close()}, але без очікування: черга й пачки в роботі скасовуються. */
+    public void dispose() {
+        Queue<T> rest;
+        synchronized (lock) {
+            closed = true;
+            rest = queue;
+            sink.tryEmitComplete();
+            pipeline.dispose();
+        }
+        abandon(rest);
+    }
+
+    private void open() {
+        queue = spec.capacity() > 0 ? new ArrayBlockingQueue<>(spec.capacity()) : new LinkedBlockingQueue<>();
+        sink = Sinks.unsafe().many().unicast().onBackpressureBuffer(queue);
+
+        Flux<T> taken = sink.asFlux().doOnNext(inFlight::add);
+        Flux<List<T>> batches = spec.batch() > 1
+                ? taken.bufferTimeout(spec.batch(), spec.linger(), true)
+                : taken.map(List::of);
+
+        pipeline = batches
+                .flatMap(b -> Mono.defer(() -> flush.apply(b))
+                        .onErrorResume(e -> {
+                            log.warn("lane {}: пачку з {} елементів не оброблено", name, b.size(), e);
+                            b.forEach(this::discard);
+                            return Mono.empty();
+                        })
+                        .doOnSuccess(v -> b.forEach(inFlight::remove)), Math.max(1, spec.concurrency()))
+                .subscribe(null, this::restart);
+    }
+
+    private void restart(Throwable e) {
+        log.error("lane {}: конвеєр впав, перепідписуємось", name, e);
+        Queue<T> rest;
+        synchronized (lock) {
+            rest = queue;
+            if (closed) {
+                queue = new LinkedBlockingQueue<>();
+            } else {
+                open();
+            }
+        }
+        abandon(rest);
+    }
+
+    private void abandon(Queue<T> rest) {
+        List<T> taken = new ArrayList<>(inFlight);
+        inFlight.removeAll(taken);
+        taken.forEach(this::discard);
+        T t;
+        while ((t = rest.poll()) != null) discard(t);
+    }
+
+    private void discard(T item) {
+        dropped.increment();
+        try {
+            lost.accept(item);
+        } catch (RuntimeException e) {
+            log.warn("lane {}: помилка у обробнику втрачених елементів", name, e);
+        }
+    }
+}
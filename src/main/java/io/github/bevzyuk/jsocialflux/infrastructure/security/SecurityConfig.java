@@ -60,7 +60,7 @@ public class SecurityConfig {
                 )
                 .authorizeExchange(ex -> ex
                         .pathMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
-                        .pathMatchers("/api/auth/**", "/api/feed").permitAll()
+                        .pathMatchers("/api/auth/**", "/api/feed", "/api/feed/stream").permitAll()
                         .pathMatchers(org.springframework.http.HttpMethod.GET,
                                 "/api/search"
                         ).permitAll()
@@ -69,7 +69,9 @@ public class SecurityConfig {
                         ).permitAll()
                         .pathMatchers(org.springframework.http.HttpMethod.GET,
                                 "/api/users/{username}/photos",
-                                "/api/users/{username}/posts"
+                                "/api/users/{username}/posts",
+                                "/api/users/{username}/photos/stream",
+                                "/api/users/{username}/posts/stream"
                         ).permitAll()
                         .pathMatchers(org.springframework.http.HttpMethod.GET,
                                 "/api/users/{username}/followers",
@@ -81,7 +83,9 @@ public class SecurityConfig {
                         ).permitAll()
                         .pathMatchers(org.springframework.http.HttpMethod.GET,
                                 "/api/photos/{id}/comments",
-                                "/api/posts/{id}/comments"
+                                "/api/posts/{id}/comments",
+                                "/api/photos/{id}/comments/stream",
+                                "/api/posts/{id}/comments/stream"
                         ).permitAll()
                         .pathMatchers("/ws/**").authenticated()
                         .anyExchange().authenticated()
@@ -1,17 +1,22 @@
 package io.github.bevzyuk.jsocialflux.web.controller;
 
 import io.github.bevzyuk.jsocialflux.application.service.ChatService;
+import io.github.bevzyuk.jsocialflux.application.service.MessageService;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.request.AddParticipantsRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.request.CreateGroupChatRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.request.StartPrivateChatRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatOpenDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatSlice;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.response.SyncFrame;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchSlice;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -20,6 +25,7 @@ import reactor.core.publisher.Mono;
 public class ChatController {
 
     private final ChatService chatService;
+    private final MessageService messageService;
 
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ChatSlice> myChats(@RequestParam(required = false) Long cursorEpochMs,
@@ -27,10 +33,27 @@ public class ChatController {
                                    @RequestParam(defaultValue = "20") int size,
                                    @AuthenticationPrincipal Mono<User> principal) {
         return principal.flatMap(p ->
-                chatService.listForUserSlice(p.getUsername(), cursorEpochMs, cursorId, size)
+                chatService.listForUserSlice(p.getId(), cursorEpochMs, cursorId, size)
         );
     }
 
+    @GetMapping(path = "/sync", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SyncFrame> sync(@RequestParam(required = false) String syncToken,
+                                @AuthenticationPrincipal Mono<User> principal) {
+        return principal.flatMapMany(p -> chatService.syncSince(p.getId(), syncToken));
+    }
+
+    @GetMapping(path = "/messages/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<MessageSearchSlice> searchMessages(@RequestParam String q,
+                                                   @RequestParam(required = false) Float cursorRank,
+                                                   @RequestParam(required = false) Long cursorEpochMs,
+                                                   @RequestParam(required = false) Long cursorId,
+                                                   @RequestParam(defaultValue = "20") int size,
+                                                   @AuthenticationPrincipal Mono<User> principal) {
+        MessageSearchCursor c = new MessageSearchCursor(cursorRank, cursorEpochMs, cursorId);
+        return principal.flatMap(p -> messageService.searchForUser(p.getId(), q, c, size));
+    }
+
     @PostMapping(value = "/private", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ChatOpenDTO> startPrivate(@RequestBody StartPrivateChatRequest req,
                                           @AuthenticationPrincipal Mono<User> principal) {
@@ -42,4 +65,12 @@ public class ChatController {
                                          @AuthenticationPrincipal Mono<User> principal) {
         return principal.flatMap(p -> chatService.createGroup(p.getUsername(), req));
     }
+
+    @PostMapping(value = "/{chatId}/participants", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> addParticipants(@PathVariable Long chatId,
+                                      @RequestBody AddParticipantsRequest req,
+                                      @AuthenticationPrincipal Mono<User> principal) {
+        return principal.flatMap(p -> chatService.addParticipants(chatId, p, req));
+    }
 }
@@ -1,13 +1,21 @@
 package io.github.bevzyuk.jsocialflux.web.controller;
 
+import io.github.bevzyuk.jsocialflux.domain.user.User;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedSlice;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedSlice;
 import io.github.bevzyuk.jsocialflux.application.service.FeedService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -24,11 +32,59 @@ public class FeedController {
             @RequestParam(required = false) Long cursorId,
             @RequestParam(defaultValue = "10") int size
     ) {
-        FeedCursor c = (cursorTs == null && cursorType == null && cursorId == null)
+        return feedService.getFeedSlice(cursor(cursorTs, cursorType, cursorId), size);
+    }
+
+    @GetMapping(params = "mode=top")
+    public Mono<TopFeedSlice> top(
+            @RequestParam(required = false) Double cursorScore,
+            @RequestParam(required = false) String cursorType,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        TopFeedCursor c = (cursorScore == null && cursorType == null && cursorId == null)
                 ? null
-                : new FeedCursor(cursorTs, cursorType, cursorId);
-        return feedService.getFeedSlice(c, size);
+                : new TopFeedCursor(cursorScore, cursorType, cursorId);
+        return feedService.getTopSlice(c, size);
+    }
+
+    @GetMapping(path = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SliceFrame<FeedItemDTO>> feedStream(
+            @RequestParam(required = false) Long cursorTs,
+            @RequestParam(required = false) String cursorType,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        return feedService.streamFeed(cursor(cursorTs, cursorType, cursorId), size);
     }
-}
 
+    @GetMapping("/following")
+    public Mono<FeedSlice> following(
+            @RequestParam(required = false) Long cursorTs,
+            @RequestParam(required = false) String cursorType,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal Mono<User> principal
+    ) {
+        FeedCursor c = cursor(cursorTs, cursorType, cursorId);
+        return principal.flatMap(p -> feedService.getFollowingSlice(p.getId(), c, size));
+    }
 
+    @GetMapping(path = "/following/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SliceFrame<FeedItemDTO>> followingStream(
+            @RequestParam(required = false) Long cursorTs,
+            @RequestParam(required = false) String cursorType,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "10") int size,
+            @AuthenticationPrincipal Mono<User> principal
+    ) {
+        FeedCursor c = cursor(cursorTs, cursorType, cursorId);
+        return principal.flatMapMany(p -> feedService.streamFollowing(p.getId(), c, size));
+    }
+
+    private static FeedCursor cursor(Long cursorTs, String cursorType, Long cursorId) {
+        return (cursorTs == null && cursorType == null && cursorId == null)
+                ? null
+                : new FeedCursor(cursorTs, cursorType, cursorId);
+    }
+}
@@ -2,14 +2,19 @@ package io.github.bevzyuk.jsocialflux.web.controller;
 
 import io.github.bevzyuk.jsocialflux.application.service.MessageService;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
+import io.github.bevzyuk.jsocialflux.web.dto.message.request.ReadAckRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.message.request.SendMessageRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchSlice;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSlice;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -29,13 +34,43 @@ public class MessageRestController {
                 messageService.listSlice(chatId, p.getUsername(), cursorEpochMs, cursorId, size));
     }
 
+    @GetMapping(path = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SliceFrame<MessageDTO>> listStream(@PathVariable Long chatId,
+                                                  @RequestParam(required = false) Long cursorEpochMs,
+                                                  @RequestParam(required = false) Long cursorId,
+                                                  @RequestParam(defaultValue = "30") int size,
+                                                  @AuthenticationPrincipal Mono<User> principal) {
+        return principal.flatMapMany(p ->
+                messageService.streamSlice(chatId, p.getUsername(), cursorEpochMs, cursorId, size));
+    }
+
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<MessageSearchSlice> search(@PathVariable Long chatId,
+                                           @RequestParam String q,
+                                           @RequestParam(required = false) Float cursorRank,
+                                           @RequestParam(required = false) Long cursorEpochMs,
+                                           @RequestParam(required = false) Long cursorId,
+                                           @RequestParam(defaultValue = "20") int size,
+                                           @AuthenticationPrincipal Mono<User> principal) {
+        MessageSearchCursor c = new MessageSearchCursor(cursorRank, cursorEpochMs, cursorId);
+        return principal.flatMap(p -> messageService.searchInChat(chatId, p, q, c, size));
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<MessageDTO> create(@PathVariable Long chatId,
                                    @RequestBody SendMessageRequest req,
                                    @AuthenticationPrincipal Mono<User> principal) {
         return principal.flatMap(p ->
-                messageService.sendToChat(chatId, p.getUsername(), req.content()));
+                messageService.sendToChat(chatId, p, req.content()));
+    }
+
+    @PostMapping(path = "/read", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Mono<Void> read(@PathVariable Long chatId,
+                           @RequestBody ReadAckRequest req,
+                           @AuthenticationPrincipal Mono<User> principal) {
+        return principal.flatMap(p -> messageService.markRead(chatId, p.getId(), req.messageId()));
     }
 
     @DeleteMapping("/{messageId}")
@@ -3,6 +3,7 @@ package io.github.bevzyuk.jsocialflux.web.controller;
 import io.github.bevzyuk.jsocialflux.application.service.PhotoCommentService;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
 import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.request.CreateCommentRequest;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.response.PhotoCommentSlice;
 import io.github.bevzyuk.jsocialflux.web.dto.photoComment.response.PhotoCommentDTO;
@@ -11,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -29,6 +31,15 @@ public class PhotoCommentController {
         return photoCommentService.list(photoId, c, size);
     }
 
+    @GetMapping(path = "/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SliceFrame<PhotoCommentDTO>> listStream(@PathVariable Long photoId,
+                                                        @RequestParam(required = false) Long cursorTs,
+                                                        @RequestParam(required = false) Long cursorId,
+                                                        @RequestParam(defaultValue = "10") int size) {
+        Cursor2 c = (cursorTs == null && cursorId == null) ? null : new Cursor2(cursorTs, cursorId);
+        return photoCommentService.stream(photoId, c, size);
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<PhotoCommentDTO> create(@PathVariable Long photoId,
@@ -1,7 +1,9 @@
 package io.github.bevzyuk.jsocialflux.web.controller;
 
+import io.github.bevzyuk.jsocialflux.application.service.PresenceService;
 import io.github.bevzyuk.jsocialflux.application.service.UserDirectoryService;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
+import io.github.bevzyuk.jsocialflux.web.dto.user.PresenceDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.user.UserSlice;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
@@ -12,12 +14,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserDirectoryController {
 
     private final UserDirectoryService directory;
+    private final PresenceService presence;
 
     @GetMapping(value = "/suggestions", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<UserSlice> myNetwork(@RequestParam(required = false) String q,
@@ -36,4 +41,10 @@ public class UserDirectoryController {
                 directory.searchUsersExcludingSelf(p.getUsername(), q, cursor, size)
         );
     }
+
+    @GetMapping(value = "/presence", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<PresenceDTO>> presence(@RequestParam List<String> usernames,
+                                            @AuthenticationPrincipal Mono<User> principal) {
+        return principal.flatMap(p -> presence.lookup(p.getId(), usernames));
+    }
 }
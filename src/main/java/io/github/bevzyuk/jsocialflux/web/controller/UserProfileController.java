@@ -1,8 +1,11 @@
 package io.github.bevzyuk.jsocialflux.web.controller;
 
+import io.github.bevzyuk.jsocialflux.web.dto.photo.response.PhotoCardDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.photo.response.PhotoSlice;
+import io.github.bevzyuk.jsocialflux.web.dto.post.response.PostCardDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.post.response.PostSlice;
 import io.github.bevzyuk.jsocialflux.web.dto.common.Cursor2;
+import io.github.bevzyuk.jsocialflux.web.dto.common.SliceFrame;
 import io.github.bevzyuk.jsocialflux.web.dto.user.ProfileUpdateResponse;
 import io.github.bevzyuk.jsocialflux.web.dto.user.UpdateProfileCmd;
 import io.github.bevzyuk.jsocialflux.web.dto.user.UserProfileDTO;
@@ -17,6 +20,7 @@ import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.lang.Nullable;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Optional;
@@ -49,6 +53,17 @@ public class UserProfileController {
         return postService.getUserPostCards(username, c, size);
     }
 
+    @GetMapping(path = "/{username}/posts/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SliceFrame<PostCardDTO>> postsStream(
+            @PathVariable String username,
+            @RequestParam(required = false) Long cursorTs,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "9") int size
+    ) {
+        Cursor2 c = (cursorTs == null && cursorId == null) ? null : new Cursor2(cursorTs, cursorId);
+        return postService.streamUserPostCards(username, c, size);
+    }
+
     @GetMapping("/{username}/photos")
     public Mono<PhotoSlice> photos(
             @PathVariable String username,
@@ -60,6 +75,17 @@ public class UserProfileController {
         return photoService.getUserPhotoCards(username, c, size);
     }
 
+    @GetMapping(path = "/{username}/photos/stream", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<SliceFrame<PhotoCardDTO>> photosStream(
+            @PathVariable String username,
+            @RequestParam(required = false) Long cursorTs,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "9") int size
+    ) {
+        Cursor2 c = (cursorTs == null && cursorId == null) ? null : new Cursor2(cursorTs, cursorId);
+        return photoService.streamUserPhotoCards(username, c, size);
+    }
+
     @PutMapping(path = "/{username}",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public Mono<ResponseEntity<ProfileUpdateResponse>> update(
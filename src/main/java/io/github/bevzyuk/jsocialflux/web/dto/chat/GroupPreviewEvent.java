@@ -0,0 +1,17 @@
+package io.github.bevzyuk.jsocialflux.web.dto.chat;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Одне прев'ю групового чату для всіх учасників; вузли доставляють його лише своїм сесіям.
+ * {@code unread} — лічильник непрочитаних кожного отримувача, підставляється у {@code view} при доставці.
+ */
+public record GroupPreviewEvent(
+        Collection<String> usernames,
+        ChatViewDTO view,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) Map<String, Integer> unread
+) {}
@@ -1,5 +1,7 @@
 package io.github.bevzyuk.jsocialflux.web.dto.chat.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.Instant;
 
 public record ChatViewDTO(
@@ -8,5 +10,6 @@ public record ChatViewDTO(
         String displayAvatar,
         boolean isGroup,
         String lastMessage,
-        Instant lastSentAt
+        Instant lastSentAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer unreadCount
 ) {}
\ No newline at end of file
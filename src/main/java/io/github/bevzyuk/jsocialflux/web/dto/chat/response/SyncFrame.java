@@ -0,0 +1,33 @@
+package io.github.bevzyuk.jsocialflux.web.dto.chat.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.github.bevzyuk.jsocialflux.web.dto.message.MessageDeletedEvent;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+
+/**
+ * Кадр синхронізації (NDJSON / SSE): спершу {@code {"preview":...}} для змінених чатів,
+ * далі {@code {"message":...}} за зростанням id, потім {@code {"deleted":{"id":...,"chatId":...}}} для видалених,
+ * останнім — {@code {"syncToken":...,"complete":...}}. Видалення може стосуватися повідомлення, якого клієнт
+ * не має, — тоді його просто пропускають.
+ * {@code complete=false} означає, що це лише частина змін: клієнт одразу робить наступний запит
+ * з отриманим {@code syncToken}, доки не прийде {@code complete=true}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SyncFrame(ChatViewDTO preview, MessageDTO message, MessageDeletedEvent deleted, String syncToken, Boolean complete) {
+
+    public static SyncFrame preview(ChatViewDTO preview) {
+        return new SyncFrame(preview, null, null, null, null);
+    }
+
+    public static SyncFrame message(MessageDTO message) {
+        return new SyncFrame(null, message, null, null, null);
+    }
+
+    public static SyncFrame deleted(Long chatId, Long messageId) {
+        return new SyncFrame(null, null, new MessageDeletedEvent(messageId, chatId), null, null);
+    }
+
+    public static SyncFrame end(String syncToken, boolean complete) {
+        return new SyncFrame(null, null, null, syncToken, complete);
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.bevzyuk.jsocialflux.web.dto.common;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Кадр потокової сторінки (NDJSON / SSE): спершу {@code {"item":...}} для кожного рядка,
+ * останнім — {@code {"hasNext":...,"nextCursor":...}}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SliceFrame<T>(T item, Boolean hasNext, Object nextCursor) {
+
+    public static <T> SliceFrame<T> item(T item) {
+        return new SliceFrame<>(item, null, null);
+    }
+
+    public static <T> SliceFrame<T> end(boolean hasNext, @Nullable Object nextCursor) {
+        return new SliceFrame<>(null, hasNext, nextCursor);
+    }
+
+    /** {@code rows} — запит з LIMIT size+1; зайвий рядок не віддається, лише визначає hasNext. */
+    public static <T> Flux<SliceFrame<T>> stream(Flux<T> rows, int size, Function<T, ?> cursorOf) {
+        return Flux.defer(() -> {
+            final AtomicInteger seen = new AtomicInteger();
+            final AtomicReference<T> last = new AtomicReference<>();
+            return rows.take(size + 1)
+                    .filter(r -> seen.incrementAndGet() <= size)
+                    .doOnNext(last::set)
+                    .map(SliceFrame::<T>item)
+                    .concatWith(Mono.fromSupplier(() -> {
+                        final boolean hasNext = seen.get() > size;
+                        return SliceFrame.<T>end(hasNext, (hasNext && last.get() != null) ? cursorOf.apply(last.get()) : null);
+                    }));
+        });
+    }
+
+    public static <T> Flux<SliceFrame<T>> of(List<T> items, boolean hasNext, @Nullable Object nextCursor) {
+        return Flux.fromIterable(items)
+                .map(SliceFrame::<T>item)
+                .concatWith(Mono.just(SliceFrame.<T>end(hasNext, nextCursor)));
+    }
+}
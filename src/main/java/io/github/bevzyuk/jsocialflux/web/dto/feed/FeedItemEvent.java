@@ -0,0 +1,10 @@
+package io.github.bevzyuk.jsocialflux.web.dto.feed;
+
+public record FeedItemEvent(
+        String event,
+        FeedItemDTO item
+) {
+    public static FeedItemEvent created(FeedItemDTO item) {
+        return new FeedItemEvent("FEED_ITEM", item);
+    }
+}
@@ -5,8 +5,7 @@ import java.time.Instant;
 public record FeedItemRow(
         Long id,
         String feedType,
-        String username,
-        String avatar,
+        Long userId,
         String content,
         String imageUrl,
         Instant createdAt,
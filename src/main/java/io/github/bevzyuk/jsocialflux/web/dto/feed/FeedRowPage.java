@@ -0,0 +1,28 @@
+package io.github.bevzyuk.jsocialflux.web.dto.feed;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Сторінка глобальної стрічки до підстановки авторів. Так її тримають кеші: картки авторів
+ * беруться з {@code AuthorCardCache} при читанні, тож зміна профілю не зачіпає закешовані сторінки.
+ */
+public record FeedRowPage(
+        List<FeedItemRow> rows,
+        boolean hasNext,
+        @Nullable FeedCursor nextCursor
+) {
+
+    /** {@code rows} — запит з LIMIT size+1; зайвий рядок не зберігається, лише визначає hasNext. */
+    public static FeedRowPage of(List<FeedItemRow> rows, int size) {
+        final boolean hasNext = rows.size() > size;
+        final List<FeedItemRow> page = List.copyOf(hasNext ? rows.subList(0, size) : rows);
+        final FeedCursor next = (hasNext && !page.isEmpty()) ? cursorOf(page.get(page.size() - 1)) : null;
+        return new FeedRowPage(page, hasNext, next);
+    }
+
+    public static FeedCursor cursorOf(FeedItemRow last) {
+        return new FeedCursor(last.createdAt().toEpochMilli(), last.feedType(), last.id());
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.bevzyuk.jsocialflux.web.dto.feed;
+
+import java.util.Collection;
+
+/** Новий елемент для всіх підписників автора однією подією; вузли доставляють його лише своїм сесіям. */
+public record FollowerFeedEvent(
+        Collection<String> usernames,
+        FeedItemEvent event
+) {}
@@ -0,0 +1,3 @@
+package io.github.bevzyuk.jsocialflux.web.dto.feed;
+
+public record TopFeedCursor(Double score, String type, Long id) {}
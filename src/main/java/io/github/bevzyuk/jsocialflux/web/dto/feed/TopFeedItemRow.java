@@ -0,0 +1,14 @@
+package io.github.bevzyuk.jsocialflux.web.dto.feed;
+
+import java.time.Instant;
+
+public record TopFeedItemRow(
+        Long id,
+        String feedType,
+        Long userId,
+        String content,
+        String imageUrl,
+        Instant createdAt,
+        Boolean edited,
+        Double rankScore
+) {}
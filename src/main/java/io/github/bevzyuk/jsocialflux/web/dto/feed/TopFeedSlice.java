@@ -0,0 +1,9 @@
+package io.github.bevzyuk.jsocialflux.web.dto.feed;
+
+import java.util.List;
+
+public record TopFeedSlice(
+        List<FeedItemDTO> content,
+        boolean hasNext,
+        TopFeedCursor nextCursor
+) {}
@@ -0,0 +1,12 @@
+package io.github.bevzyuk.jsocialflux.web.dto.message;
+
+public record ReadAckEvent(
+        String event,
+        Long chatId,
+        Long userId,
+        Long messageId
+) {
+    public static ReadAckEvent of(Long chatId, Long userId, Long messageId) {
+        return new ReadAckEvent("READ", chatId, userId, messageId);
+    }
+}
@@ -0,0 +1,11 @@
+package io.github.bevzyuk.jsocialflux.web.dto.message;
+
+public record TypingEvent(
+        String event,
+        Long chatId,
+        String username
+) {
+    public static TypingEvent of(Long chatId, String username) {
+        return new TypingEvent("TYPING", chatId, username);
+    }
+}
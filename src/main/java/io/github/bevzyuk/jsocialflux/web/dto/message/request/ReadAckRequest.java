@@ -0,0 +1,3 @@
+package io.github.bevzyuk.jsocialflux.web.dto.message.request;
+
+public record ReadAckRequest(Long messageId) {}
@@ -0,0 +1,3 @@
+package io.github.bevzyuk.jsocialflux.web.dto.message.response;
+
+public record MessageSearchCursor(Float rank, Long epochMs, Long id) {}
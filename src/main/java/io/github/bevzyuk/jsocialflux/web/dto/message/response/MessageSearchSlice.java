@@ -0,0 +1,9 @@
+package io.github.bevzyuk.jsocialflux.web.dto.message.response;
+
+import java.util.List;
+
+public record MessageSearchSlice(
+        List<MessageDTO> items,
+        boolean hasNext,
+        MessageSearchCursor nextCursor
+) {}
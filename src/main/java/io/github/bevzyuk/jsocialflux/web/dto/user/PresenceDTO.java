@@ -0,0 +1,8 @@
+package io.github.bevzyuk.jsocialflux.web.dto.user;
+
+import java.time.Instant;
+
+public record PresenceDTO(
+        String  username,
+        boolean online,
+        Instant lastSeenAt) {}
@@ -1,6 +1,9 @@
 package io.github.bevzyuk.jsocialflux.web.mapper;
 
 import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.ChatPreviewRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
@@ -15,7 +18,7 @@ public class ChatPreviewMapper {
                                                  String counterpartAvatar,
                                                  String lastMessage,
                                                  Instant lastSentAt) {
-        return new ChatViewDTO(chatId, counterpartUsername, counterpartAvatar, false, lastMessage, lastSentAt);
+        return new ChatViewDTO(chatId, counterpartUsername, counterpartAvatar, false, lastMessage, lastSentAt, null);
     }
 
     public ChatViewDTO toGroupPreview(Long chatId,
@@ -23,8 +26,22 @@ public class ChatPreviewMapper {
                                       String groupAvatar,
                                       String lastMessage,
                                       Instant lastSentAt) {
-        String name = (groupName == null || groupName.isBlank()) ? DEFAULT_GROUP_NAME : groupName;
-        return new ChatViewDTO(chatId, name, groupAvatar, true, lastMessage, lastSentAt);
+        return new ChatViewDTO(chatId, groupName(groupName), groupAvatar, true, lastMessage, lastSentAt, null);
+    }
+
+    public ChatViewDTO toPreview(ChatPreviewRec r, @Nullable UserLiteRec other) {
+        if (Boolean.TRUE.equals(r.isGroup())) {
+            return new ChatViewDTO(r.chatId(), groupName(r.groupName()), r.groupAvatar(), true,
+                    r.lastMessage(), r.lastSentAt(), r.unreadCount());
+        }
+        return new ChatViewDTO(r.chatId(),
+                other == null ? null : other.username(),
+                other == null ? null : other.avatar(),
+                false, r.lastMessage(), r.lastSentAt(), r.unreadCount());
+    }
+
+    private static String groupName(String groupName) {
+        return (groupName == null || groupName.isBlank()) ? DEFAULT_GROUP_NAME : groupName;
     }
 }
 
@@ -2,17 +2,32 @@ package io.github.bevzyuk.jsocialflux.web.mapper;
 
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
 import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.TopFeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FeedItemMapper {
 
-    public FeedItemDTO toDTO(FeedItemRow r) {
+    public FeedItemDTO toDTO(FeedItemRow r, UserLiteRec author) {
         return new FeedItemDTO(
                 r.id(),
                 FeedItemDTO.FeedType.valueOf(r.feedType()),
-                r.username(),
-                r.avatar(),
+                author.username(),
+                author.avatar(),
+                r.content(),
+                r.imageUrl(),
+                r.createdAt(),
+                Boolean.TRUE.equals(r.edited())
+        );
+    }
+
+    public FeedItemDTO toDTO(TopFeedItemRow r, UserLiteRec author) {
+        return new FeedItemDTO(
+                r.id(),
+                FeedItemDTO.FeedType.valueOf(r.feedType()),
+                author.username(),
+                author.avatar(),
                 r.content(),
                 r.imageUrl(),
                 r.createdAt(),
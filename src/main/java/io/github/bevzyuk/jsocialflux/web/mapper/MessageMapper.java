@@ -3,6 +3,8 @@ package io.github.bevzyuk.jsocialflux.web.mapper;
 import io.github.bevzyuk.jsocialflux.domain.chat.Message;
 import io.github.bevzyuk.jsocialflux.domain.user.User;
 import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.MessageRec;
+import io.github.bevzyuk.jsocialflux.web.mapper.column.UserLiteRec;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -14,8 +16,20 @@ public class MessageMapper {
                 m.getChatId(),
                 m.getContent(),
                 m.getSentAt(),
-                sender.getUsername(),
-                sender.getAvatar()
+                sender == null ? null : sender.getUsername(),
+                sender == null ? null : sender.getAvatar()
+        );
+    }
+
+    /** Повідомлення видаленого користувача ({@code sender == null}) лишається в чаті без автора. */
+    public MessageDTO toDto(MessageRec r, UserLiteRec sender) {
+        return new MessageDTO(
+                r.id(),
+                r.chatId(),
+                r.content(),
+                r.sentAt(),
+                sender == null ? null : sender.username(),
+                sender == null ? null : sender.avatar()
         );
     }
 }
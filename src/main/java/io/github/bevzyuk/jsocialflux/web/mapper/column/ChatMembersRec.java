@@ -0,0 +1,10 @@
+package io.github.bevzyuk.jsocialflux.web.mapper.column;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+public record ChatMembersRec(
+        @Column("is_group")   Boolean isGroup,
+        @Column("name")       String  name,
+        @Column("avatar")     String  avatar,
+        @Column("member_ids") Long[]  memberIds
+) {}
@@ -0,0 +1,38 @@
+package io.github.bevzyuk.jsocialflux.web.mapper.column;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.Instant;
+
+/**
+ * Рядок синхронізації: kind = 'P' (прев'ю чату, user_id — співрозмовник), 'M' (повідомлення, user_id — автор)
+ * або 'D' (видалене повідомлення, sent_at — час видалення).
+ */
+public record ChatSyncRec(
+        @Column("kind")         String  kind,
+        @Column("chat_id")      Long    chatId,
+        @Column("id")           Long    id,
+        @Column("content")      String  content,
+        @Column("sent_at")      Instant sentAt,
+        @Column("user_id")      Long    userId,
+        @Column("is_group")     Boolean isGroup,
+        @Column("group_name")   String  groupName,
+        @Column("group_avatar") String  groupAvatar,
+        @Column("unread_count") Integer unreadCount
+) {
+    public boolean isPreview() {
+        return "P".equals(kind);
+    }
+
+    public boolean isMessage() {
+        return "M".equals(kind);
+    }
+
+    public ChatPreviewRec preview() {
+        return new ChatPreviewRec(chatId, isGroup, groupName, groupAvatar, userId, content, sentAt, unreadCount);
+    }
+
+    public MessageRec message() {
+        return new MessageRec(id, chatId, content, sentAt, userId);
+    }
+}
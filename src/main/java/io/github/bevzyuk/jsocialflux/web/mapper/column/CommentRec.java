@@ -0,0 +1,12 @@
+package io.github.bevzyuk.jsocialflux.web.mapper.column;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.Instant;
+
+public record CommentRec(
+        @Column("id")         Long    id,
+        @Column("content")    String  content,
+        @Column("created_at") Instant createdAt,
+        @Column("user_id")    Long    userId
+) {}
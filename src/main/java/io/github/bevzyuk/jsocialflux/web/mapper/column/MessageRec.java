@@ -0,0 +1,13 @@
+package io.github.bevzyuk.jsocialflux.web.mapper.column;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.Instant;
+
+public record MessageRec(
+        @Column("id")        Long    id,
+        @Column("chat_id")   Long    chatId,
+        @Column("content")   String  content,
+        @Column("sent_at")   Instant sentAt,
+        @Column("sender_id") Long    senderId
+) {}
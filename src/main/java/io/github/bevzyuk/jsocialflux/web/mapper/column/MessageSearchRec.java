@@ -0,0 +1,18 @@
+package io.github.bevzyuk.jsocialflux.web.mapper.column;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.Instant;
+
+public record MessageSearchRec(
+        @Column("id")        Long    id,
+        @Column("chat_id")   Long    chatId,
+        @Column("content")   String  content,
+        @Column("sent_at")   Instant sentAt,
+        @Column("sender_id") Long    senderId,
+        @Column("rank")      Float   rank
+) {
+    public MessageRec message() {
+        return new MessageRec(id, chatId, content, sentAt, senderId);
+    }
+}
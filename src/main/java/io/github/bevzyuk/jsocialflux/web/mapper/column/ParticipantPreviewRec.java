@@ -0,0 +1,22 @@
+package io.github.bevzyuk.jsocialflux.web.mapper.column;
+
+import org.springframework.data.relational.core.mapping.Column;
+
+import java.time.Instant;
+
+/** Прев'ю чату з погляду конкретного учасника ({@code viewerId}). */
+public record ParticipantPreviewRec(
+        @Column("viewer_id")     Long    viewerId,
+        @Column("chat_id")       Long    chatId,
+        @Column("is_group")      Boolean isGroup,
+        @Column("group_name")    String  groupName,
+        @Column("group_avatar")  String  groupAvatar,
+        @Column("other_user_id") Long    otherUserId,
+        @Column("last_message")  String  lastMessage,
+        @Column("last_sent_at")  Instant lastSentAt,
+        @Column("unread_count")  Integer unreadCount
+) {
+    public ChatPreviewRec preview() {
+        return new ChatPreviewRec(chatId, isGroup, groupName, groupAvatar, otherUserId, lastMessage, lastSentAt, unreadCount);
+    }
+}
@@ -0,0 +1,88 @@
+-- Матеріалізована стрічка: одна таблиця замість UNION ALL post/photo на кожне читання.
+-- feed_order: 2 = POST, 1 = PHOTO (той самий порядок, що й у курсорі FeedCursor).
+-- created_at обрізаємо до мілісекунд, бо курсор клієнта має точність epoch-ms.
+
+CREATE TABLE feed_item (
+                           feed_order INTEGER      NOT NULL,
+                           id         BIGINT       NOT NULL,
+                           user_id    BIGINT       NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+                           content    VARCHAR(1000),
+                           image_url  VARCHAR(255),
+                           created_at TIMESTAMPTZ  NOT NULL,
+                           edited     BOOLEAN      NOT NULL DEFAULT FALSE,
+                           PRIMARY KEY (feed_order, id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_feed_item_created_order_id_desc
+    ON feed_item (created_at DESC, feed_order DESC, id DESC);
+
+-- ===== Синхронізація з post =====
+CREATE OR REPLACE FUNCTION tg_feed_item_post() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO feed_item (feed_order, id, user_id, content, image_url, created_at, edited)
+        SELECT 2, NEW.id, NEW.user_id, NEW.content, NULL,
+               date_trunc('milliseconds', COALESCE(NEW.created_at, now())),
+               NEW.edited_at IS NOT NULL
+         WHERE NEW.user_id IS NOT NULL;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE feed_item
+           SET content = NEW.content,
+               edited  = (NEW.edited_at IS NOT NULL)
+         WHERE feed_order = 2 AND id = NEW.id;
+    ELSIF TG_OP = 'DELETE' THEN
+        DELETE FROM feed_item WHERE feed_order = 2 AND id = OLD.id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_post_feed_item_aiud ON post;
+
+CREATE TRIGGER trg_post_feed_item_aiud
+    AFTER INSERT OR UPDATE OF content, edited_at OR DELETE ON post
+    FOR EACH ROW EXECUTE PROCEDURE tg_feed_item_post();
+
+-- ===== Синхронізація з photo =====
+CREATE OR REPLACE FUNCTION tg_feed_item_photo() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO feed_item (feed_order, id, user_id, content, image_url, created_at, edited)
+        SELECT 1, NEW.id, NEW.user_id, NEW.description, NEW.url,
+               date_trunc('milliseconds', COALESCE(NEW.uploaded_at, now())),
+               FALSE
+         WHERE NEW.user_id IS NOT NULL;
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE feed_item
+           SET content   = NEW.description,
+               image_url = NEW.url
+         WHERE feed_order = 1 AND id = NEW.id;
+    ELSIF TG_OP = 'DELETE' THEN
+        DELETE FROM feed_item WHERE feed_order = 1 AND id = OLD.id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_photo_feed_item_aiud ON photo;
+
+CREATE TRIGGER trg_photo_feed_item_aiud
+    AFTER INSERT OR UPDATE OF description, url OR DELETE ON photo
+    FOR EACH ROW EXECUTE PROCEDURE tg_feed_item_photo();
+
+-- ===== Одноразове заповнення для вже існуючих даних =====
+INSERT INTO feed_item (feed_order, id, user_id, content, image_url, created_at, edited)
+SELECT 2, p.id, p.user_id, p.content, NULL,
+       date_trunc('milliseconds', COALESCE(p.created_at, now())),
+       p.edited_at IS NOT NULL
+  FROM post p
+ WHERE p.user_id IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+INSERT INTO feed_item (feed_order, id, user_id, content, image_url, created_at, edited)
+SELECT 1, ph.id, ph.user_id, ph.description, ph.url,
+       date_trunc('milliseconds', COALESCE(ph.uploaded_at, now())),
+       FALSE
+  FROM photo ph
+ WHERE ph.user_id IS NOT NULL
+ON CONFLICT DO NOTHING;
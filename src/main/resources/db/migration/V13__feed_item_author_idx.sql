@@ -0,0 +1,4 @@
+-- Потік автора для гібридної стрічки (pull для акаунтів з великою кількістю підписників):
+-- WHERE user_id = :author AND (created_at, feed_order, id) < (:ts, :ord, :id)
+CREATE INDEX IF NOT EXISTS idx_feed_item_user_created_order_id_desc
+    ON feed_item (user_id, created_at DESC, feed_order DESC, id DESC);
@@ -0,0 +1,81 @@
+-- Режим стрічки "top": рейтинг з свіжості та залученості.
+-- rank_score = epoch(created_at) / 43200 + log2(1 + comments_cnt):
+-- кожне подвоєння коментарів варте 12 годин свіжості. Старі записи опускаються самі,
+-- тож оцінку перераховуємо лише тоді, коли змінюється лічильник коментарів.
+
+ALTER TABLE feed_item ADD COLUMN IF NOT EXISTS comments_cnt INTEGER          NOT NULL DEFAULT 0;
+ALTER TABLE feed_item ADD COLUMN IF NOT EXISTS rank_score   DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION feed_rank_score(created TIMESTAMPTZ, comments INTEGER) RETURNS DOUBLE PRECISION
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT extract(epoch FROM created)::double precision / 43200.0
+         + ln(1 + GREATEST(comments, 0)::double precision) / ln(2.0::double precision)
+$$;
+
+CREATE OR REPLACE FUNCTION tg_feed_item_rank() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.rank_score := feed_rank_score(NEW.created_at, NEW.comments_cnt);
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_feed_item_rank_biu ON feed_item;
+
+CREATE TRIGGER trg_feed_item_rank_biu
+    BEFORE INSERT OR UPDATE OF created_at, comments_cnt ON feed_item
+    FOR EACH ROW EXECUTE PROCEDURE tg_feed_item_rank();
+
+-- ===== Лічильники коментарів =====
+CREATE OR REPLACE FUNCTION tg_feed_item_post_comments() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE feed_item SET comments_cnt = comments_cnt + 1
+         WHERE feed_order = 2 AND id = NEW.post_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE feed_item SET comments_cnt = comments_cnt - 1
+         WHERE feed_order = 2 AND id = OLD.post_id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_post_comment_feed_item_aid ON post_comment;
+
+CREATE TRIGGER trg_post_comment_feed_item_aid
+    AFTER INSERT OR DELETE ON post_comment
+    FOR EACH ROW EXECUTE PROCEDURE tg_feed_item_post_comments();
+
+CREATE OR REPLACE FUNCTION tg_feed_item_photo_comments() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE feed_item SET comments_cnt = comments_cnt + 1
+         WHERE feed_order = 1 AND id = NEW.photo_id;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE feed_item SET comments_cnt = comments_cnt - 1
+         WHERE feed_order = 1 AND id = OLD.photo_id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_photo_comment_feed_item_aid ON photo_comment;
+
+CREATE TRIGGER trg_photo_comment_feed_item_aid
+    AFTER INSERT OR DELETE ON photo_comment
+    FOR EACH ROW EXECUTE PROCEDURE tg_feed_item_photo_comments();
+
+-- ===== Одноразове заповнення (тригер rank_score перерахує оцінку) =====
+UPDATE feed_item f
+   SET comments_cnt = COALESCE(c.cnt, 0)
+  FROM (
+        SELECT 2 AS feed_order, post_id AS id, count(*)::int AS cnt FROM post_comment GROUP BY post_id
+        UNION ALL
+        SELECT 1, photo_id, count(*)::int FROM photo_comment GROUP BY photo_id
+       ) c
+ WHERE c.feed_order = f.feed_order AND c.id = f.id;
+
+UPDATE feed_item SET comments_cnt = comments_cnt WHERE rank_score = 0;
+
+-- (rank_score, feed_order, id) < (:score, :ord, :id)
+CREATE INDEX IF NOT EXISTS idx_feed_item_rank_order_id_desc
+    ON feed_item (rank_score DESC, feed_order DESC, id DESC);
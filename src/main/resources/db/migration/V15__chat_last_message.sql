@@ -0,0 +1,91 @@
+-- Останнє повідомлення зберігається в самому чаті: список чатів читає chat без LATERAL-підзапитів.
+-- last_sent_at = час останнього повідомлення або created_at для чату без повідомлень.
+
+ALTER TABLE chat ADD COLUMN IF NOT EXISTS last_message_id BIGINT;
+ALTER TABLE chat ADD COLUMN IF NOT EXISTS last_message    VARCHAR(255);
+ALTER TABLE chat ADD COLUMN IF NOT EXISTS last_sent_at    TIMESTAMPTZ;
+
+UPDATE chat c
+   SET last_message_id = lm.id,
+       last_message    = lm.content,
+       last_sent_at    = COALESCE(lm.sent_at, c.created_at)
+  FROM chat c2
+  LEFT JOIN LATERAL (
+        SELECT m.id, m.content, m.sent_at
+          FROM message m
+         WHERE m.chat_id = c2.id
+         ORDER BY m.sent_at DESC, m.id DESC
+         LIMIT 1
+       ) lm ON TRUE
+ WHERE c2.id = c.id;
+
+ALTER TABLE chat ALTER COLUMN last_sent_at SET DEFAULT now();
+ALTER TABLE chat ALTER COLUMN last_sent_at SET NOT NULL;
+
+-- ===== Вставка: один UPDATE на чат за інструкцію (group commit пише пачками) =====
+CREATE OR REPLACE FUNCTION tg_chat_last_message_ins() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE chat c
+       SET last_message_id = n.id,
+           last_message    = n.content,
+           last_sent_at    = n.sent_at
+      FROM (
+            SELECT DISTINCT ON (chat_id) chat_id, id, content, sent_at
+              FROM new_rows
+             ORDER BY chat_id, sent_at DESC, id DESC
+           ) n
+     WHERE c.id = n.chat_id
+       AND (c.last_message_id IS NULL OR (n.sent_at, n.id) > (c.last_sent_at, c.last_message_id));
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_message_chat_last_ai ON message;
+
+CREATE TRIGGER trg_message_chat_last_ai
+    AFTER INSERT ON message
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE tg_chat_last_message_ins();
+
+-- ===== Видалення: перерахунок лише коли видалено останнє =====
+CREATE OR REPLACE FUNCTION tg_chat_last_message_del() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+DECLARE
+    lm_id      BIGINT;
+    lm_content VARCHAR(255);
+    lm_sent_at TIMESTAMPTZ;
+BEGIN
+    IF EXISTS (SELECT 1 FROM chat WHERE id = OLD.chat_id AND last_message_id = OLD.id) THEN
+        SELECT m.id, m.content, m.sent_at
+          INTO lm_id, lm_content, lm_sent_at
+          FROM message m
+         WHERE m.chat_id = OLD.chat_id
+         ORDER BY m.sent_at DESC, m.id DESC
+         LIMIT 1;
+
+        UPDATE chat
+           SET last_message_id = lm_id,
+               last_message    = lm_content,
+               last_sent_at    = COALESCE(lm_sent_at, created_at)
+         WHERE id = OLD.chat_id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_message_chat_last_ad ON message;
+
+CREATE TRIGGER trg_message_chat_last_ad
+    AFTER DELETE ON message
+    FOR EACH ROW EXECUTE PROCEDURE tg_chat_last_message_del();
+
+-- Співрозмовник приватного чату з private_key "min:max"
+CREATE OR REPLACE FUNCTION chat_peer_id(private_key TEXT, viewer BIGINT) RETURNS BIGINT
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT CASE WHEN split_part(private_key, ':', 1)::bigint = viewer
+                THEN split_part(private_key, ':', 2)::bigint
+                ELSE split_part(private_key, ':', 1)::bigint
+           END
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_chat_participants_user
+    ON chat_participants (user_id, chat_id);
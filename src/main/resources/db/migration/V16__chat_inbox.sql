@@ -0,0 +1,109 @@
+-- Вхідні кожного учасника: chat_participants несе власні last_sent_at, прочитане та лічильник непрочитаних.
+-- Список чатів гортається індексом (user_id, last_sent_at DESC, chat_id DESC) без join на users.
+
+ALTER TABLE chat_participants ADD COLUMN IF NOT EXISTS last_sent_at         TIMESTAMPTZ;
+ALTER TABLE chat_participants ADD COLUMN IF NOT EXISTS last_read_message_id BIGINT;
+ALTER TABLE chat_participants ADD COLUMN IF NOT EXISTS unread_count         INTEGER NOT NULL DEFAULT 0;
+
+UPDATE chat_participants cp
+   SET last_sent_at         = c.last_sent_at,
+       last_read_message_id = c.last_message_id
+  FROM chat c
+ WHERE c.id = cp.chat_id;
+
+ALTER TABLE chat_participants ALTER COLUMN last_sent_at SET DEFAULT now();
+ALTER TABLE chat_participants ALTER COLUMN last_sent_at SET NOT NULL;
+
+-- Новий учасник бачить чат на позиції останнього повідомлення, без непрочитаних
+CREATE OR REPLACE FUNCTION tg_chat_participant_inbox() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    SELECT c.last_sent_at, c.last_message_id
+      INTO NEW.last_sent_at, NEW.last_read_message_id
+      FROM chat c
+     WHERE c.id = NEW.chat_id;
+    NEW.unread_count := 0;
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_chat_participant_inbox_bi ON chat_participants;
+
+CREATE TRIGGER trg_chat_participant_inbox_bi
+    BEFORE INSERT ON chat_participants
+    FOR EACH ROW EXECUTE PROCEDURE tg_chat_participant_inbox();
+
+-- ===== Вставка: chat + вхідні учасників, по одному UPDATE на таблицю за інструкцію =====
+CREATE OR REPLACE FUNCTION tg_chat_last_message_ins() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    UPDATE chat c
+       SET last_message_id = n.id,
+           last_message    = n.content,
+           last_sent_at    = n.sent_at
+      FROM (
+            SELECT DISTINCT ON (chat_id) chat_id, id, content, sent_at
+              FROM new_rows
+             ORDER BY chat_id, sent_at DESC, id DESC
+           ) n
+     WHERE c.id = n.chat_id
+       AND (c.last_message_id IS NULL OR (n.sent_at, n.id) > (c.last_sent_at, c.last_message_id));
+
+    -- власні повідомлення не рахуються непрочитаними
+    UPDATE chat_participants cp
+       SET last_sent_at = GREATEST(cp.last_sent_at, n.sent_at),
+           unread_count = cp.unread_count + n.cnt
+                        - (SELECT count(*) FROM new_rows r WHERE r.chat_id = cp.chat_id AND r.sender_id = cp.user_id)
+      FROM (
+            SELECT chat_id, max(sent_at) AS sent_at, count(*) AS cnt
+              FROM new_rows
+             GROUP BY chat_id
+           ) n
+     WHERE cp.chat_id = n.chat_id;
+    RETURN NULL;
+END $$;
+
+-- ===== Видалення =====
+CREATE OR REPLACE FUNCTION tg_chat_last_message_del() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+DECLARE
+    lm_id      BIGINT;
+    lm_content VARCHAR(255);
+    lm_sent_at TIMESTAMPTZ;
+BEGIN
+    UPDATE chat_participants
+       SET unread_count = GREATEST(unread_count - 1, 0)
+     WHERE chat_id = OLD.chat_id
+       AND user_id IS DISTINCT FROM OLD.sender_id
+       AND OLD.id > COALESCE(last_read_message_id, 0);
+
+    IF EXISTS (SELECT 1 FROM chat WHERE id = OLD.chat_id AND last_message_id = OLD.id) THEN
+        SELECT m.id, m.content, m.sent_at
+          INTO lm_id, lm_content, lm_sent_at
+          FROM message m
+         WHERE m.chat_id = OLD.chat_id
+         ORDER BY m.sent_at DESC, m.id DESC
+         LIMIT 1;
+
+        UPDATE chat
+           SET last_message_id = lm_id,
+               last_message    = lm_content,
+               last_sent_at    = COALESCE(lm_sent_at, created_at)
+         WHERE id = OLD.chat_id;
+
+        UPDATE chat_participants cp
+           SET last_sent_at = c.last_sent_at
+          FROM chat c
+         WHERE c.id = OLD.chat_id AND cp.chat_id = c.id;
+    END IF;
+    RETURN NULL;
+END $$;
+
+-- (last_sent_at, chat_id) < (:cursorTime, :cursorId) для одного користувача
+CREATE INDEX IF NOT EXISTS idx_chat_participants_inbox
+    ON chat_participants (user_id, last_sent_at DESC, chat_id DESC);
+
+DROP INDEX IF EXISTS idx_chat_participants_user;
+
+-- перерахунок непрочитаних після підтвердження: id > last_read_message_id
+CREATE INDEX IF NOT EXISTS idx_message_chat_id
+    ON message (chat_id, id);
@@ -0,0 +1,122 @@
+-- message розбивається помісячно за sent_at (межі місяців у UTC).
+-- Нові розділи наперед створює MessagePartitionMaintenance; старі від'єднуються в архів
+-- (message_archive_YYYYMM) і згодом видаляються. Первинний ключ містить ключ розбиття: (id, sent_at).
+-- Увага: міграція переписує всю таблицю message в одній транзакції (копія, індекси, DROP старої),
+-- увесь цей час запис у чати заблоковано, а на диску потрібно вдвічі більше місця.
+-- На великій таблиці запускайте її у вікні обслуговування.
+
+ALTER TABLE message RENAME TO message_unpartitioned;
+
+CREATE TABLE message (
+    id        BIGINT         NOT NULL DEFAULT nextval('message_id_seq'),
+    content   VARCHAR(255),
+    sent_at   TIMESTAMPTZ(6) NOT NULL DEFAULT now(),
+    chat_id   BIGINT REFERENCES chat(id)  ON DELETE CASCADE,
+    sender_id BIGINT REFERENCES users(id) ON DELETE SET NULL
+) PARTITION BY RANGE (sent_at);
+
+ALTER SEQUENCE message_id_seq OWNED BY message.id;
+
+CREATE OR REPLACE FUNCTION message_partition_month(ts TIMESTAMPTZ) RETURNS DATE
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT date_trunc('month', ts AT TIME ZONE 'UTC')::date
+$$;
+
+-- Створює відсутні розділи для місяців [from_ts, to_ts]; повертає кількість створених
+CREATE OR REPLACE FUNCTION message_ensure_partitions(from_ts TIMESTAMPTZ, to_ts TIMESTAMPTZ) RETURNS INTEGER
+    LANGUAGE plpgsql AS $$
+DECLARE
+    m       DATE    := message_partition_month(from_ts);
+    last_m  DATE    := message_partition_month(to_ts);
+    created INTEGER := 0;
+    part    TEXT;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('message_partitions'));
+    WHILE m <= last_m LOOP
+        part := 'message_p' || to_char(m, 'YYYYMM');
+        IF to_regclass(part) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF message FOR VALUES FROM (%L) TO (%L)',
+                           part,
+                           m::timestamp AT TIME ZONE 'UTC',
+                           (m + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+            created := created + 1;
+        END IF;
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END $$;
+
+-- Від'єднує розділи, старіші за місяць before_ts, і перейменовує їх на message_archive_YYYYMM
+CREATE OR REPLACE FUNCTION message_archive_partitions(before_ts TIMESTAMPTZ) RETURNS INTEGER
+    LANGUAGE plpgsql AS $$
+DECLARE
+    r        RECORD;
+    archived INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('message_partitions'));
+    FOR r IN
+        SELECT c.relname
+          FROM pg_inherits i
+          JOIN pg_class c ON c.oid = i.inhrelid
+         WHERE i.inhparent = 'message'::regclass
+           AND CASE WHEN c.relname ~ '^message_p[0-9]{6}$'
+                    THEN to_date(substr(c.relname, 10), 'YYYYMM') < message_partition_month(before_ts)
+                    ELSE FALSE END
+    LOOP
+        EXECUTE format('ALTER TABLE message DETACH PARTITION %I', r.relname);
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', r.relname, 'message_archive_' || substr(r.relname, 10));
+        archived := archived + 1;
+    END LOOP;
+    RETURN archived;
+END $$;
+
+-- Видаляє архівні таблиці, старіші за місяць before_ts
+CREATE OR REPLACE FUNCTION message_drop_archives(before_ts TIMESTAMPTZ) RETURNS INTEGER
+    LANGUAGE plpgsql AS $$
+DECLARE
+    r       RECORD;
+    dropped INTEGER := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('message_partitions'));
+    FOR r IN
+        SELECT c.relname
+          FROM pg_class c
+         WHERE c.relnamespace = current_schema()::regnamespace
+           AND c.relkind = 'r'
+           AND CASE WHEN c.relname ~ '^message_archive_[0-9]{6}$'
+                    THEN to_date(substr(c.relname, 17), 'YYYYMM') < message_partition_month(before_ts)
+                    ELSE FALSE END
+    LOOP
+        EXECUTE format('DROP TABLE %I', r.relname);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END $$;
+
+SELECT message_ensure_partitions(
+        COALESCE((SELECT min(sent_at) FROM message_unpartitioned), now()),
+        now() + INTERVAL '3 months');
+
+INSERT INTO message (id, content, sent_at, chat_id, sender_id)
+SELECT id, content, COALESCE(sent_at, now()), chat_id, sender_id
+  FROM message_unpartitioned;
+
+DROP TABLE message_unpartitioned;
+
+ALTER TABLE message ADD PRIMARY KEY (id, sent_at);
+
+CREATE INDEX IF NOT EXISTS idx_message_chat_sent_at_desc_id_desc
+    ON message (chat_id, sent_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_message_chat_id
+    ON message (chat_id, id);
+
+-- Тригери V15/V16 на новій таблиці
+CREATE TRIGGER trg_message_chat_last_ai
+    AFTER INSERT ON message
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE PROCEDURE tg_chat_last_message_ins();
+
+CREATE TRIGGER trg_message_chat_last_ad
+    AFTER DELETE ON message
+    FOR EACH ROW EXECUTE PROCEDURE tg_chat_last_message_del();
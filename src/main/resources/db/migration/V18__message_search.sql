@@ -0,0 +1,10 @@
+-- Повнотекстовий пошук повідомлень. Словник 'simple': українського стемера в стандартній поставці немає,
+-- тож лексеми — це слова в нижньому регістрі. Колонка генерується, тригери не потрібні.
+
+ALTER TABLE message
+    ADD COLUMN IF NOT EXISTS content_tsv tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', COALESCE(content, ''))) STORED;
+
+-- індекс на розбитій таблиці створюється на кожному розділі, у т.ч. майбутніх
+CREATE INDEX IF NOT EXISTS idx_message_content_tsv
+    ON message USING GIN (content_tsv);
@@ -0,0 +1,40 @@
+-- Розділ DEFAULT для message: якщо MessagePartitionMaintenance не встиг створити розділ місяця,
+-- INSERT не падає, а рядок потрапляє сюди. Непорожній розділ — привід для алерту
+-- (метрика chat.message.partition.default.rows).
+CREATE TABLE IF NOT EXISTS message_pdefault PARTITION OF message DEFAULT;
+
+-- Як у V17, але якщо в DEFAULT уже є рядки місяця, що створюється, вони переносяться в новий розділ.
+-- DEFAULT на час перенесення від'єднується, тож тригери message на цих рядках не спрацьовують
+-- і лічильники вхідних не змінюються.
+CREATE OR REPLACE FUNCTION message_ensure_partitions(from_ts TIMESTAMPTZ, to_ts TIMESTAMPTZ) RETURNS INTEGER
+    LANGUAGE plpgsql AS $$
+DECLARE
+    m       DATE    := message_partition_month(from_ts);
+    last_m  DATE    := message_partition_month(to_ts);
+    created INTEGER := 0;
+    part    TEXT;
+    lo      TIMESTAMPTZ;
+    hi      TIMESTAMPTZ;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtext('message_partitions'));
+    WHILE m <= last_m LOOP
+        part := 'message_p' || to_char(m, 'YYYYMM');
+        lo   := m::timestamp AT TIME ZONE 'UTC';
+        hi   := (m + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+        IF to_regclass(part) IS NULL THEN
+            IF EXISTS (SELECT 1 FROM message_pdefault WHERE sent_at >= lo AND sent_at < hi) THEN
+                ALTER TABLE message DETACH PARTITION message_pdefault;
+                EXECUTE format('CREATE TABLE %I (LIKE message INCLUDING DEFAULTS)', part);
+                EXECUTE format('WITH moved AS (DELETE FROM message_pdefault WHERE sent_at >= %L AND sent_at < %L RETURNING *) '
+                               'INSERT INTO %I SELECT * FROM moved', lo, hi, part);
+                EXECUTE format('ALTER TABLE message ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)', part, lo, hi);
+                ALTER TABLE message ATTACH PARTITION message_pdefault DEFAULT;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF message FOR VALUES FROM (%L) TO (%L)', part, lo, hi);
+            END IF;
+            created := created + 1;
+        END IF;
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+    RETURN created;
+END $$;
@@ -0,0 +1,10 @@
+-- Пошук завжди обмежений чатом (або чатами користувача), а GIN з V18 знаходив збіги по всіх чатах,
+-- і фільтр chat_id відсіював їх уже після читання з купи. Складений GIN (chat_id, content_tsv)
+-- перетинає обидві умови в самому індексі. btree_gin — довірене розширення, власник БД може його створити.
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_message_chat_content_tsv
+    ON message USING GIN (chat_id, content_tsv);
+
+-- складений індекс покриває і пошук по кількох чатах (chat_id = ANY), тож старий лише дублює запис
+DROP INDEX IF EXISTS idx_message_content_tsv;
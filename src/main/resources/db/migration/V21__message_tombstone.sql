@@ -0,0 +1,15 @@
+-- Видалені повідомлення для дельта-синхронізації: без них клієнт, що перепідключився після видалення,
+-- показував би видалене повідомлення й далі. Рядок пише той самий запит, що видаляє повідомлення;
+-- записи старші за app.chat.tombstone-retention прибирає MessagePartitionMaintenance.
+CREATE TABLE IF NOT EXISTS message_tombstone (
+    chat_id    BIGINT      NOT NULL REFERENCES chat (id) ON DELETE CASCADE,
+    id         BIGINT      NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (chat_id, id)
+);
+
+-- синхронізація: chat_id = ANY(чати користувача) AND deleted_at >= :sinceTime; очищення — за deleted_at
+CREATE INDEX IF NOT EXISTS idx_message_tombstone_chat_deleted_at
+    ON message_tombstone (chat_id, deleted_at);
+CREATE INDEX IF NOT EXISTS idx_message_tombstone_deleted_at
+    ON message_tombstone (deleted_at);
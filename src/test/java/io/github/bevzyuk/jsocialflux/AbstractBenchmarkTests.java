@@ -0,0 +1,32 @@
+package io.github.bevzyuk.jsocialflux;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Базовий клас для навантажувальних бенчмарків. Підкласи позначаються
+ * {@code @EnabledIfSystemProperty(named = "bench", matches = "true")} і запускаються лише явно:
+ * {@code mvn test -Dbench=true -Dtest=<Class>}.
+ */
+public abstract class AbstractBenchmarkTests extends AbstractIntegrationTests {
+
+    protected static long longProperty(String name, long def) {
+        return Long.getLong(name, def);
+    }
+
+    protected static String latency(List<Long> nanos) {
+        List<Long> sorted = new ArrayList<>(nanos);
+        Collections.sort(sorted);
+        return "n=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms".formatted(
+                sorted.size(),
+                pct(sorted, 0.50), pct(sorted, 0.95), pct(sorted, 0.99),
+                sorted.isEmpty() ? 0.0 : sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    private static double pct(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0.0;
+        int idx = (int) Math.min(sorted.size() - 1, Math.ceil(p * sorted.size()) - 1);
+        return sorted.get(Math.max(0, idx)) / 1e6;
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.bevzyuk.jsocialflux;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+
+/**
+ * Застосунок поверх справжніх Postgres і Redis у Testcontainers; контейнери спільні для всіх підкласів.
+ */
+@SpringBootTest(properties = {
+        "jwt.secret=test-secret-test-secret-test-secret-0123456789",
+        "cloudinary.cloud-name=test",
+        "cloudinary.api-key=test",
+        "cloudinary.api-secret=test",
+        "spring.data.redis.ssl.enabled=false"
+})
+public abstract class AbstractIntegrationTests {
+
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"))
+                    .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "max_wal_size=4GB");
+
+    static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void containerProperties(DynamicPropertyRegistry r) {
+        POSTGRES.start();
+        REDIS.start();
+
+        r.add("spring.r2dbc.url", () -> "r2dbc:postgresql://%s:%d/%s?schema=jsocial".formatted(
+                POSTGRES.getHost(), POSTGRES.getMappedPort(5432), POSTGRES.getDatabaseName()));
+        r.add("spring.r2dbc.username", POSTGRES::getUsername);
+        r.add("spring.r2dbc.password", POSTGRES::getPassword);
+        r.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        r.add("spring.flyway.user", POSTGRES::getUsername);
+        r.add("spring.flyway.password", POSTGRES::getPassword);
+        r.add("spring.data.redis.url", () -> "redis://%s:%d".formatted(
+                REDIS.getHost(), REDIS.getMappedPort(6379)));
+    }
+
+    @Autowired
+    protected DatabaseClient db;
+
+    protected void exec(String sql) {
+        db.sql(sql).fetch().rowsUpdated().block(Duration.ofMinutes(30));
+    }
+
+    protected Long queryLong(String sql) {
+        return db.sql(sql).map(row -> row.get(0, Long.class)).one().block(Duration.ofMinutes(1));
+    }
+}
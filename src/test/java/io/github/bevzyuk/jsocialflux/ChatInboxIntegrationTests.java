@@ -0,0 +1,144 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.ReadAckWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Лічильники вхідних із V16: тригери на message підтримують chat.last_* і chat_participants.unread_count,
+ * а ReadAckWriter перераховує лічильник від підтвердженого id.
+ */
+class ChatInboxIntegrationTests extends AbstractIntegrationTests {
+
+    @Autowired
+    private ReadAckWriter readAcks;
+
+    private long a, b, c, chat;
+
+    @BeforeEach
+    void chatOfThree() {
+        a = user();
+        b = user();
+        c = user();
+        chat = queryLong("INSERT INTO chat (name, is_group) VALUES ('group', TRUE) RETURNING id");
+        exec("INSERT INTO chat_participants (chat_id, user_id) VALUES (%d, %d), (%d, %d), (%d, %d)"
+                .formatted(chat, a, chat, b, chat, c));
+    }
+
+    @Test
+    void insertBatchCountsUnreadExceptOwnMessages() {
+        long[] ids = sendThree();
+
+        assertEquals(1, unread(a));
+        assertEquals(2, unread(b));
+        assertEquals(3, unread(c));
+        assertEquals(ids[2], queryLong("SELECT last_message_id FROM chat WHERE id = " + chat));
+        assertEquals(0, queryLong("""
+                SELECT count(*) FROM chat_participants cp JOIN chat c ON c.id = cp.chat_id
+                 WHERE cp.chat_id = %d AND cp.last_sent_at <> c.last_sent_at
+                """.formatted(chat)));
+    }
+
+    @Test
+    void deletingUnreadMessageDecrementsOthersOnly() {
+        long[] ids = sendThree();
+
+        exec("DELETE FROM message WHERE id = " + ids[0]);
+
+        assertEquals(1, unread(a));
+        assertEquals(1, unread(b));
+        assertEquals(2, unread(c));
+        assertEquals(ids[2], queryLong("SELECT last_message_id FROM chat WHERE id = " + chat));
+    }
+
+    @Test
+    void deletingLastMessageMovesChatToPreviousOne() {
+        long[] ids = sendThree();
+
+        exec("DELETE FROM message WHERE id = " + ids[2]);
+
+        assertEquals(ids[1], queryLong("SELECT last_message_id FROM chat WHERE id = " + chat));
+        assertEquals(0, unread(a));
+        assertEquals(2, unread(b));
+        assertEquals(2, unread(c));
+        assertEquals(0, queryLong("""
+                SELECT count(*) FROM chat_participants cp JOIN chat c ON c.id = cp.chat_id
+                 WHERE cp.chat_id = %d AND cp.last_sent_at <> c.last_sent_at
+                """.formatted(chat)));
+    }
+
+    @Test
+    void readAckFlushRecountsUnread() {
+        long[] ids = sendThree();
+
+        readAcks.ack(chat, c, ids[1]);
+
+        awaitEquals(1L, () -> unread(c));
+        assertEquals(ids[1], lastRead(c));
+        assertEquals(2, unread(b));
+    }
+
+    @Test
+    void readAckBeyondLastMessageIsClamped() {
+        long[] ids = sendThree();
+
+        readAcks.ack(chat, b, Long.MAX_VALUE / 2);
+
+        awaitEquals(ids[2], () -> lastRead(b));
+        assertEquals(0, unread(b));
+
+        exec("INSERT INTO message (chat_id, sender_id, content) VALUES (%d, %d, 'next')".formatted(chat, a));
+        assertEquals(1, unread(b));
+    }
+
+    private long[] sendThree() {
+        exec("""
+                INSERT INTO message (chat_id, sender_id, content, sent_at)
+                VALUES (%1$d, %2$d, 'one',   now() - interval '3 seconds'),
+                       (%1$d, %2$d, 'two',   now() - interval '2 seconds'),
+                       (%1$d, %3$d, 'three', now() - interval '1 second')
+                """.formatted(chat, a, b));
+        return new long[]{
+                messageId("one"), messageId("two"), messageId("three")
+        };
+    }
+
+    private long messageId(String content) {
+        return queryLong("SELECT id FROM message WHERE chat_id = %d AND content = '%s'".formatted(chat, content));
+    }
+
+    private long user() {
+        return queryLong("INSERT INTO users (username, password) VALUES ('u_%s', 'x') RETURNING id"
+                .formatted(UUID.randomUUID().toString().substring(0, 12)));
+    }
+
+    private long unread(long userId) {
+        return queryLong("SELECT unread_count::bigint FROM chat_participants WHERE chat_id = %d AND user_id = %d"
+                .formatted(chat, userId));
+    }
+
+    private Long lastRead(long userId) {
+        return queryLong("SELECT last_read_message_id FROM chat_participants WHERE chat_id = %d AND user_id = %d"
+                .formatted(chat, userId));
+    }
+
+    /** Підтвердження пишуться раз на app.chat.read-ack-flush, тож чекаємо кілька циклів. */
+    private static void awaitEquals(Long expected, Supplier<Long> actual) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!expected.equals(actual.get()) && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        assertEquals(expected, actual.get());
+    }
+}
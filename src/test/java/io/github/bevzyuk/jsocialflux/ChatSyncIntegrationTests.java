@@ -0,0 +1,129 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.application.service.ChatService;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.MessageRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.response.SyncFrame;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Дельта-синхронізація ChatService.syncSince: повна сторінка пересуває токен навіть по свіжих повідомленнях,
+ * видалення приходять надгробками, а токен, старший за зберігання надгробків, відхиляється.
+ */
+class ChatSyncIntegrationTests extends AbstractIntegrationTests {
+
+    private static final int FULL_PAGE = 2_000;
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    private long me, peer, chat;
+
+    @BeforeEach
+    void chatOfTwo() {
+        me = user();
+        peer = user();
+        chat = queryLong("INSERT INTO chat (name, is_group) VALUES ('sync', TRUE) RETURNING id");
+        exec("INSERT INTO chat_participants (chat_id, user_id) VALUES (%d, %d), (%d, %d)"
+                .formatted(chat, me, chat, peer));
+    }
+
+    @Test
+    void fullPageOfFreshMessagesAdvancesToken() {
+        String token = tokenBeforeNow();
+        exec("""
+                INSERT INTO message (chat_id, sender_id, content)
+                SELECT %d, %d, 'm' || g FROM generate_series(1, %d) g
+                """.formatted(chat, peer, FULL_PAGE + 500));
+
+        List<SyncFrame> first = sync(token);
+        SyncFrame firstEnd = first.get(first.size() - 1);
+        assertFalse(firstEnd.complete());
+        Set<Long> firstIds = messageIds(first);
+        assertEquals(FULL_PAGE, firstIds.size());
+
+        List<SyncFrame> second = sync(firstEnd.syncToken());
+        SyncFrame secondEnd = second.get(second.size() - 1);
+        assertTrue(secondEnd.complete());
+        Set<Long> secondIds = messageIds(second);
+        assertEquals(500, secondIds.size());
+
+        Set<Long> all = new HashSet<>(firstIds);
+        all.addAll(secondIds);
+        assertEquals(FULL_PAGE + 500, all.size());
+    }
+
+    @Test
+    void deletedMessageComesAsTombstone() {
+        String token = tokenBeforeNow();
+        long kept = queryLong("INSERT INTO message (chat_id, sender_id, content) VALUES (%d, %d, 'kept') RETURNING id"
+                .formatted(chat, peer));
+        long gone = queryLong("INSERT INTO message (chat_id, sender_id, content) VALUES (%d, %d, 'gone') RETURNING id"
+                .formatted(chat, peer));
+        Instant sentAt = db.sql("SELECT sent_at FROM message WHERE id = :id")
+                .bind("id", gone)
+                .map(row -> row.get(0, Instant.class))
+                .one()
+                .block(Duration.ofSeconds(10));
+        assertEquals(Boolean.TRUE, messageRepository.deleteReturningWasLast(gone, sentAt).block(Duration.ofSeconds(10)));
+
+        List<SyncFrame> frames = sync(token);
+
+        assertEquals(Set.of(kept), messageIds(frames));
+        List<SyncFrame> deleted = frames.stream().filter(f -> f.deleted() != null).toList();
+        assertEquals(1, deleted.size());
+        assertEquals(gone, deleted.get(0).deleted().id());
+        assertEquals(chat, deleted.get(0).deleted().chatId());
+        assertTrue(frames.get(frames.size() - 1).complete());
+    }
+
+    @Test
+    void tokenOlderThanTombstoneRetentionIsGone() {
+        String token = "0." + Instant.now().minus(Duration.ofDays(365)).toEpochMilli();
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> sync(token));
+        assertEquals(HttpStatus.GONE, e.getStatusCode());
+    }
+
+    /** Токен до поточного моменту, як його мав би клієнт після попередньої синхронізації. */
+    private static String tokenBeforeNow() {
+        return "0." + Instant.now().minus(Duration.ofMinutes(1)).toEpochMilli();
+    }
+
+    private List<SyncFrame> sync(String token) {
+        return chatService.syncSince(me, token).collectList().block(Duration.ofMinutes(1));
+    }
+
+    private static Set<Long> messageIds(List<SyncFrame> frames) {
+        return new HashSet<>(frames.stream()
+                .map(SyncFrame::message)
+                .filter(Objects::nonNull)
+                .map(MessageDTO::id)
+                .toList());
+    }
+
+    private long user() {
+        return queryLong("INSERT INTO users (username, password) VALUES ('u_%s', 'x') RETURNING id"
+                .formatted(UUID.randomUUID().toString().substring(0, 12)));
+    }
+}
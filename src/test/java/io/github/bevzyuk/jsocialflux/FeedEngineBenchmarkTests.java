@@ -0,0 +1,118 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed.FeedIndexMergeEngine;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed.FeedItemTableEngine;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed.FeedPageEngine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Глобальна стрічка на 10M рядків (навпіл пости та фото): таблиця feed_item проти злиття двох індексів.
+ * Обидва рушії отримують однакові курсори; на перших сторінках результати звіряються.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class FeedEngineBenchmarkTests extends AbstractBenchmarkTests {
+
+    private static final long ROWS = longProperty("bench.rows", 10_000_000);
+    private static final int PAGES = (int) longProperty("bench.pages", 2_000);
+    private static final int PAGE_SIZE = 20;
+    private static final int STEP_US = 300;
+
+    @Autowired
+    private FeedItemTableEngine table;
+
+    @Autowired
+    private FeedIndexMergeEngine merge;
+
+    @Test
+    void feedItemTableVersusIndexMerge() {
+        exec("TRUNCATE users RESTART IDENTITY CASCADE");
+        exec("INSERT INTO users (username, password) SELECT 'author_' || g, 'x' FROM generate_series(1, 1000) g");
+        exec("ALTER TABLE post DISABLE TRIGGER USER");
+        exec("ALTER TABLE photo DISABLE TRIGGER USER");
+        // мікросекундні мітки, по кілька рядків на мілісекунду і не в порядку id, як у живій таблиці
+        exec("""
+                INSERT INTO post (content, user_id, created_at)
+                SELECT 'post ' || g, 1 + g %% 1000,
+                       now() - g * interval '%d microseconds' - floor(random() * 900) * interval '1 microsecond'
+                  FROM generate_series(1, %d) g
+                """.formatted(STEP_US, ROWS / 2));
+        exec("""
+                INSERT INTO photo (description, url, user_id, uploaded_at)
+                SELECT 'photo ' || g, 'https://img/' || g, 1 + g %% 1000,
+                       now() - g * interval '%d microseconds' - floor(random() * 900) * interval '1 microsecond'
+                  FROM generate_series(1, %d) g
+                """.formatted(STEP_US, ROWS / 2));
+        exec("ALTER TABLE post ENABLE TRIGGER USER");
+        exec("ALTER TABLE photo ENABLE TRIGGER USER");
+        exec("""
+                INSERT INTO feed_item (feed_order, id, user_id, content, image_url, created_at, edited)
+                SELECT 2, id, user_id, content, NULL, date_trunc('milliseconds', created_at), FALSE FROM post
+                """);
+        exec("""
+                INSERT INTO feed_item (feed_order, id, user_id, content, image_url, created_at, edited)
+                SELECT 1, id, user_id, description, url, date_trunc('milliseconds', uploaded_at), FALSE FROM photo
+                """);
+        exec("VACUUM ANALYZE");
+
+        List<Cursor> cursors = cursors();
+        for (Cursor c : cursors.subList(0, 50)) {
+            assertEquals(ids(table, c), ids(merge, c), "рушії розходяться на курсорі " + c);
+        }
+
+        // прогрів пулу та кешу сторінок
+        measure(table, cursors.subList(0, 100));
+        measure(merge, cursors.subList(0, 100));
+
+        System.out.printf("""
+                [BENCH] %d rows, %d random pages of %d
+                [BENCH] table: %s
+                [BENCH] merge: %s
+                %n""",
+                ROWS, PAGES, PAGE_SIZE,
+                latency(measure(table, cursors)),
+                latency(measure(merge, cursors)));
+    }
+
+    private List<Cursor> cursors() {
+        Instant newest = Instant.now();
+        long spanMs = ROWS / 2 * STEP_US / 1000;
+        Random rnd = new Random(42);
+        List<Cursor> out = new ArrayList<>(PAGES);
+        out.add(new Cursor(null, 0, 0));
+        while (out.size() < PAGES) {
+            Instant ts = newest.minusMillis((long) (rnd.nextDouble() * spanMs)).truncatedTo(ChronoUnit.MILLIS);
+            out.add(new Cursor(ts, 1 + rnd.nextInt(2), rnd.nextLong(ROWS / 2)));
+        }
+        return out;
+    }
+
+    private List<Long> measure(FeedPageEngine engine, List<Cursor> cursors) {
+        List<Long> nanos = new ArrayList<>(cursors.size());
+        for (Cursor c : cursors) {
+            long t0 = System.nanoTime();
+            engine.page(c.ts, c.order, c.id, PAGE_SIZE + 1).then().block(Duration.ofMinutes(1));
+            nanos.add(System.nanoTime() - t0);
+        }
+        return nanos;
+    }
+
+    private static List<String> ids(FeedPageEngine engine, Cursor c) {
+        return engine.page(c.ts, c.order, c.id, PAGE_SIZE + 1)
+                .map(r -> r.feedType() + ":" + r.id())
+                .collectList()
+                .block(Duration.ofMinutes(1));
+    }
+
+    private record Cursor(Instant ts, int order, long id) {}
+}
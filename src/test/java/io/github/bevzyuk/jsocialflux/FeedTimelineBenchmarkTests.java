@@ -0,0 +1,100 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.application.service.FeedService;
+import io.github.bevzyuk.jsocialflux.application.service.TimelineFanoutService;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Автор з 1M підписників: push (розсилка у кожну стрічку) проти pull (злиття під час читання).
+ * Під час запису паралельно йдуть читання стрічки випадкових підписників, щоб побачити хвіст латентності.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class FeedTimelineBenchmarkTests extends AbstractBenchmarkTests {
+
+    private static final long FOLLOWERS = longProperty("bench.followers", 1_000_000);
+    private static final int READS = (int) longProperty("bench.reads", 5_000);
+    private static final long AUTHOR_ID = 1L;
+
+    @Autowired
+    private TimelineFanoutService fanout;
+
+    @Autowired
+    private FeedService feedService;
+
+    @Test
+    void pushVersusPullForHighFollowerAuthor() {
+        exec("TRUNCATE users RESTART IDENTITY CASCADE");
+        exec("INSERT INTO users (username, password) VALUES ('celebrity', 'x')");
+        exec("INSERT INTO users (username, password) SELECT 'reader_' || g, 'x' FROM generate_series(1, " + FOLLOWERS + ") g");
+        exec("ALTER TABLE user_following DISABLE TRIGGER trg_user_following_aiud");
+        exec("INSERT INTO user_following (follower_id, followed_id) SELECT id, " + AUTHOR_ID + " FROM users WHERE id <> " + AUTHOR_ID);
+        exec("ALTER TABLE user_following ENABLE TRIGGER trg_user_following_aiud");
+        exec("""
+                INSERT INTO post (content, user_id, created_at)
+                SELECT 'post ' || g, %d, now() - g * interval '1 minute'
+                  FROM generate_series(1, 200) g
+                """.formatted(AUTHOR_ID));
+        exec("ANALYZE");
+
+        exec("UPDATE users SET followers_cnt = 0 WHERE id = " + AUTHOR_ID);
+        Result push = run(insertPost());
+
+        exec("UPDATE users SET followers_cnt = " + FOLLOWERS + " WHERE id = " + AUTHOR_ID);
+        Result pull = run(insertPost());
+
+        System.out.printf("""
+                [BENCH] author with %d followers, %d concurrent timeline reads
+                [BENCH] push: write %.1f ms, reads %s
+                [BENCH] pull: write %.1f ms, reads %s
+                %n""",
+                FOLLOWERS, READS,
+                push.writeNanos / 1e6, latency(push.readNanos),
+                pull.writeNanos / 1e6, latency(pull.readNanos));
+    }
+
+    private Result run(long postId) {
+        List<Long> reads = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong write = new AtomicLong();
+
+        long start = System.nanoTime();
+        Mono<Void> fanOut = fanout.fanOutCreated(AUTHOR_ID, FeedItemDTO.FeedType.POST, postId, Instant.now())
+                .doOnTerminate(() -> write.set(System.nanoTime() - start));
+
+        Mono<Void> readers = Flux.range(0, READS)
+                .flatMap(i -> {
+                    long reader = ThreadLocalRandom.current().nextLong(2, FOLLOWERS + 2);
+                    return Mono.defer(() -> {
+                        long t0 = System.nanoTime();
+                        return feedService.getFollowingSlice(reader, null, 10)
+                                .doOnSuccess(s -> reads.add(System.nanoTime() - t0));
+                    });
+                }, 16)
+                .then();
+
+        Mono.when(fanOut, readers).block(Duration.ofMinutes(30));
+        return new Result(write.get(), reads);
+    }
+
+    private long insertPost() {
+        return db.sql("INSERT INTO post (content, user_id) VALUES ('bench', :u) RETURNING id")
+                .bind("u", AUTHOR_ID)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private record Result(long writeNanos, List<Long> readNanos) {}
+}
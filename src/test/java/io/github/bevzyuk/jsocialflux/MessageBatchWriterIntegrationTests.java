@@ -0,0 +1,75 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.domain.chat.Message;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.MessageBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Signal;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Group commit з MessageBatchWriter: запити, що прийшли разом, пишуться однією пачкою,
+ * кожен отримує свій рядок, а рядок, який не вставляється, ламає лише власний запит.
+ */
+class MessageBatchWriterIntegrationTests extends AbstractIntegrationTests {
+
+    @Autowired
+    private MessageBatchWriter writer;
+
+    private long sender, chat;
+
+    @BeforeEach
+    void chatOfOne() {
+        sender = queryLong("INSERT INTO users (username, password) VALUES ('u_%s', 'x') RETURNING id"
+                .formatted(UUID.randomUUID().toString().substring(0, 12)));
+        chat = queryLong("INSERT INTO chat (name, is_group) VALUES ('batch', TRUE) RETURNING id");
+        exec("INSERT INTO chat_participants (chat_id, user_id) VALUES (%d, %d)".formatted(chat, sender));
+    }
+
+    @Test
+    void everyWriteGetsItsOwnRow() {
+        List<Message> written = Flux.range(0, 50)
+                .flatMap(i -> writer.write(chat, sender, "m" + i), 50)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertEquals(50, written.size());
+        assertEquals(50, written.stream().map(Message::getId).collect(Collectors.toSet()).size());
+        for (Message m : written) {
+            assertEquals(m.getId(), queryLong("SELECT id FROM message WHERE chat_id = %d AND content = '%s'"
+                    .formatted(chat, m.getContent())));
+        }
+    }
+
+    @Test
+    void failingRowFailsOnlyItsOwnWrite() {
+        long missingChat = queryLong("SELECT COALESCE(max(id), 0) + 1000 FROM chat");
+
+        List<Signal<Message>> results = Flux.fromStream(IntStream.range(0, 5).boxed())
+                .flatMapSequential(i -> writer.write(i == 2 ? missingChat : chat, sender, "m" + i).materialize(), 5)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i != 2, results.get(i).isOnNext(), "write " + i);
+        }
+        assertTrue(results.get(2).isOnError());
+        assertEquals(Set.of("m0", "m1", "m3", "m4"), Set.copyOf(db.sql("SELECT content FROM message WHERE chat_id = :chat")
+                .bind("chat", chat)
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block(Duration.ofSeconds(10))));
+    }
+}
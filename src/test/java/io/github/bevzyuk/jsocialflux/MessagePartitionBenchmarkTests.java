@@ -0,0 +1,113 @@
+package io.github.bevzyuk.jsocialflux;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сторінка повідомлень чату на 100M рядків: помісячно розбита message проти тієї ж вибірки
+ * в одній таблиці з тим самим індексом (message_flat, як було до V17).
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class MessagePartitionBenchmarkTests extends AbstractBenchmarkTests {
+
+    private static final long ROWS = longProperty("bench.rows", 100_000_000);
+    private static final long CHUNK = 10_000_000;
+    private static final int CHATS = 10_000;
+    private static final int SPAN_DAYS = 730;
+    private static final int PAGES = (int) longProperty("bench.pages", 2_000);
+    private static final int PAGE_SIZE = 30;
+
+    private static final String SLICE = """
+            SELECT m.id
+              FROM %s m
+             WHERE m.chat_id = $1
+               AND (m.sent_at < $2 OR (m.sent_at = $2 AND m.id < $3))
+             ORDER BY m.sent_at DESC, m.id DESC
+             LIMIT %d
+            """;
+
+    @Test
+    void partitionedVersusFlatSlices() {
+        exec("TRUNCATE users, chat RESTART IDENTITY CASCADE");
+        exec("INSERT INTO users (username, password) SELECT 'sender_' || g, 'x' FROM generate_series(1, 1000) g");
+        exec("INSERT INTO chat (is_group, name) SELECT TRUE, 'chat ' || g FROM generate_series(1, %d) g".formatted(CHATS));
+        exec("SELECT message_ensure_partitions(now() - interval '%d days', now() + interval '3 months')".formatted(SPAN_DAYS));
+
+        exec("ALTER TABLE message DISABLE TRIGGER USER");
+        for (long from = 1; from <= ROWS; from += CHUNK) {
+            exec("""
+                    INSERT INTO message (content, sent_at, chat_id, sender_id)
+                    SELECT 'message ' || g, now() - random() * interval '%d days', 1 + g %% %d, 1 + g %% 1000
+                      FROM generate_series(%d, %d) g
+                    """.formatted(SPAN_DAYS, CHATS, from, Math.min(ROWS, from + CHUNK - 1)));
+        }
+        exec("ALTER TABLE message ENABLE TRIGGER USER");
+
+        exec("DROP TABLE IF EXISTS message_flat");
+        exec("CREATE TABLE message_flat AS SELECT * FROM message");
+        exec("CREATE INDEX idx_message_flat_chat_sent_at_desc_id_desc ON message_flat (chat_id, sent_at DESC, id DESC)");
+        exec("VACUUM ANALYZE");
+
+        List<Cursor> cursors = cursors();
+        for (Cursor c : cursors.subList(0, 50)) {
+            assertEquals(ids("message_flat", c), ids("message", c), "сторінки розходяться на курсорі " + c);
+        }
+
+        measure("message_flat", cursors.subList(0, 100));
+        measure("message", cursors.subList(0, 100));
+
+        System.out.printf("""
+                [BENCH] %d messages in %d chats over %d days, %d random pages of %d
+                [BENCH] flat:        %s
+                [BENCH] partitioned: %s
+                %n""",
+                ROWS, CHATS, SPAN_DAYS, PAGES, PAGE_SIZE,
+                latency(measure("message_flat", cursors)),
+                latency(measure("message", cursors)));
+    }
+
+    private List<Cursor> cursors() {
+        Instant now = Instant.now();
+        Random rnd = new Random(42);
+        List<Cursor> out = new ArrayList<>(PAGES);
+        while (out.size() < PAGES) {
+            long chatId = 1 + rnd.nextInt(CHATS);
+            // чверть запитів — перша сторінка, решта — випадкова глибина історії
+            Instant ts = rnd.nextInt(4) == 0 ? now
+                    : now.minus(Duration.ofMinutes((long) (rnd.nextDouble() * SPAN_DAYS * 24 * 60)));
+            out.add(new Cursor(chatId, ts, Long.MAX_VALUE));
+        }
+        return out;
+    }
+
+    private List<Long> measure(String table, List<Cursor> cursors) {
+        List<Long> nanos = new ArrayList<>(cursors.size());
+        for (Cursor c : cursors) {
+            long t0 = System.nanoTime();
+            ids(table, c);
+            nanos.add(System.nanoTime() - t0);
+        }
+        return nanos;
+    }
+
+    private List<Long> ids(String table, Cursor c) {
+        return db.sql(SLICE.formatted(table, PAGE_SIZE + 1))
+                .bind(0, c.chatId)
+                .bind(1, c.ts)
+                .bind(2, c.id)
+                .map(row -> row.get(0, Long.class))
+                .all()
+                .collectList()
+                .block(Duration.ofMinutes(1));
+    }
+
+    private record Cursor(long chatId, Instant ts, long id) {}
+}
@@ -0,0 +1,102 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.application.service.MessageService;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchCursor;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageSearchSlice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Курсор пошуку (rank, sent_at, id): сторінки без пропусків і повторів, навіть коли ранги й час
+ * збігаються, а час відрізняється лише мікросекундами в межах однієї мілісекунди курсора.
+ */
+class MessageSearchIntegrationTests extends AbstractIntegrationTests {
+
+    @Autowired
+    private MessageService messageService;
+
+    private long me, other, chat, foreignChat;
+
+    @BeforeEach
+    void chats() {
+        me = user();
+        other = user();
+        chat = queryLong("INSERT INTO chat (name, is_group) VALUES ('mine', TRUE) RETURNING id");
+        foreignChat = queryLong("INSERT INTO chat (name, is_group) VALUES ('foreign', TRUE) RETURNING id");
+        exec("INSERT INTO chat_participants (chat_id, user_id) VALUES (%d, %d), (%d, %d), (%d, %d)"
+                .formatted(chat, me, chat, other, foreignChat, other));
+
+        exec("""
+                INSERT INTO message (chat_id, sender_id, content, sent_at)
+                VALUES (%1$d, %2$d, 'fox',                 TIMESTAMPTZ '2026-03-01 10:00:00'),
+                       (%1$d, %2$d, 'fox',                 TIMESTAMPTZ '2026-03-01 10:00:00'),
+                       (%1$d, %2$d, 'fox',                 TIMESTAMPTZ '2026-03-01 10:00:00'),
+                       (%1$d, %2$d, 'fox fox fox',         TIMESTAMPTZ '2026-03-01 09:00:00'),
+                       (%1$d, %2$d, 'fox fox fox',         TIMESTAMPTZ '2026-03-01 09:00:00'),
+                       (%1$d, %2$d, 'the quick fox jumps', TIMESTAMPTZ '2026-03-01 11:00:00.000100'),
+                       (%1$d, %2$d, 'the quick fox jumps', TIMESTAMPTZ '2026-03-01 11:00:00.000900'),
+                       (%1$d, %2$d, 'the quick fox jumps', TIMESTAMPTZ '2026-03-01 11:00:00.000500'),
+                       (%1$d, %2$d, 'no match here',       TIMESTAMPTZ '2026-03-01 12:00:00'),
+                       (%3$d, %4$d, 'fox',                 TIMESTAMPTZ '2026-03-01 10:00:00')
+                """.formatted(chat, me, foreignChat, other));
+    }
+
+    @Test
+    void pagesCoverEveryHitOnceInRankOrder() {
+        List<Long> expected = db.sql("""
+                        SELECT m.id
+                          FROM message m, websearch_to_tsquery('simple', 'fox') AS q(q)
+                         WHERE m.chat_id = :chat AND m.content_tsv @@ q.q
+                         ORDER BY ts_rank(m.content_tsv, q.q) DESC, date_trunc('milliseconds', m.sent_at) DESC, m.id DESC
+                        """)
+                .bind("chat", chat)
+                .map(row -> row.get(0, Long.class))
+                .all()
+                .collectList()
+                .block(Duration.ofSeconds(10));
+        assertEquals(8, expected.size());
+
+        assertEquals(expected, pageThrough(2, c -> messageService.searchForUser(me, "fox", c, 2)));
+        assertEquals(expected, pageThrough(3, c -> messageService.searchForUser(me, "fox", c, 3)));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        MessageSearchSlice all = messageService.searchForUser(me, "fox", null, 50).block(Duration.ofSeconds(10));
+
+        assertEquals(8, all.items().size());
+        assertFalse(all.hasNext());
+        assertNull(all.nextCursor());
+    }
+
+    private static List<Long> pageThrough(int size, Function<MessageSearchCursor, Mono<MessageSearchSlice>> page) {
+        List<Long> ids = new ArrayList<>();
+        MessageSearchCursor cursor = null;
+        for (int i = 0; i < 20; i++) {
+            MessageSearchSlice slice = page.apply(cursor).block(Duration.ofSeconds(10));
+            slice.items().stream().map(MessageDTO::id).forEach(ids::add);
+            if (!slice.hasNext()) return ids;
+            assertEquals(size, slice.items().size());
+            cursor = slice.nextCursor();
+        }
+        throw new AssertionError("пошук не закінчився за 20 сторінок: " + ids);
+    }
+
+    private long user() {
+        return queryLong("INSERT INTO users (username, password) VALUES ('u_%s', 'x') RETURNING id"
+                .formatted(UUID.randomUUID().toString().substring(0, 12)));
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.bevzyuk.jsocialflux;
+
+import io.github.bevzyuk.jsocialflux.domain.chat.Message;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.MessageBatchWriter;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.MessageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Запис повідомлень з багатьох чатів одночасно: поштучний save() проти group commit.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class MessageWriteBenchmarkTests extends AbstractBenchmarkTests {
+
+    private static final int MESSAGES = (int) longProperty("bench.messages", 100_000);
+    private static final int CONCURRENCY = (int) longProperty("bench.concurrency", 256);
+    private static final int CHATS = 1_000;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageBatchWriter messageWriter;
+
+    @Test
+    void singleSaveVersusGroupCommit() {
+        exec("TRUNCATE users, chat RESTART IDENTITY CASCADE");
+        exec("INSERT INTO users (username, password) SELECT 'sender_' || g, 'x' FROM generate_series(1, 100) g");
+        exec("INSERT INTO chat (is_group, name) SELECT TRUE, 'chat ' || g FROM generate_series(1, %d) g".formatted(CHATS));
+
+        // прогрів пулу
+        run(this::save, 2_000);
+        run(this::batch, 2_000);
+
+        String single = report(this::save);
+        String grouped = report(this::batch);
+
+        assertEquals(2L * (MESSAGES + 2_000), db.sql("SELECT count(*) FROM message")
+                .map(row -> row.get(0, Long.class)).one().block());
+
+        System.out.printf("""
+                [BENCH] %d messages, concurrency %d, %d chats
+                [BENCH] save():       %s
+                [BENCH] group commit: %s
+                %n""", MESSAGES, CONCURRENCY, CHATS, single, grouped);
+    }
+
+    private Mono<Message> save(int i) {
+        Message m = new Message();
+        m.setChatId(1L + i % CHATS);
+        m.setSenderId(1L + i % 100);
+        m.setContent("message " + i);
+        return messageRepository.save(m);
+    }
+
+    private Mono<Message> batch(int i) {
+        return messageWriter.write(1L + i % CHATS, 1L + i % 100, "message " + i);
+    }
+
+    private String report(Function<Integer, Mono<Message>> write) {
+        long t0 = System.nanoTime();
+        List<Long> nanos = run(write, MESSAGES);
+        double secs = (System.nanoTime() - t0) / 1e9;
+        return "%.0f msg/s, %s".formatted(MESSAGES / secs, latency(nanos));
+    }
+
+    private List<Long> run(Function<Integer, Mono<Message>> write, int count) {
+        ConcurrentLinkedQueue<Long> nanos = new ConcurrentLinkedQueue<>();
+        Flux.range(0, count)
+                .flatMap(i -> Mono.defer(() -> {
+                    long t0 = System.nanoTime();
+                    return write.apply(i).doOnSuccess(m -> nanos.add(System.nanoTime() - t0));
+                }), CONCURRENCY)
+                .then()
+                .block(Duration.ofMinutes(30));
+        return List.copyOf(nanos);
+    }
+}
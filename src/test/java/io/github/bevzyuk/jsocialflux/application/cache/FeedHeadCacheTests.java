@@ -0,0 +1,181 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.feed.FeedPageEngine;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO.FeedType;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Патчі вікна {@link FeedHeadCache}: Redis підміняється синком, куди публікація одразу повертає патч,
+ * тож патч застосовується синхронно, як на вузлі, що його опублікував.
+ */
+class FeedHeadCacheTests {
+
+    private static final int HEAD_SIZE = 4;
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final FeedPageEngine engine = mock(FeedPageEngine.class);
+    private final FeedRepository repo = mock(FeedRepository.class);
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveRedisMessageListenerContainer container = mock(ReactiveRedisMessageListenerContainer.class);
+    private final Sinks.Many<ReactiveSubscription.Message<String, String>> channel = Sinks.many().multicast().directBestEffort();
+
+    private FeedHeadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(container.receive(any(ChannelTopic.class))).thenReturn(channel.asFlux());
+        when(redis.convertAndSend(eq(FeedHeadCache.CHANNEL), anyString())).thenAnswer(inv -> {
+            channel.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(FeedHeadCache.CHANNEL, inv.getArgument(1)));
+            return Mono.just(1L);
+        });
+        cache = new FeedHeadCache(engine, repo,
+                new FeedProperties(100, 100, 1000, FeedProperties.Engine.TABLE, HEAD_SIZE, 100, Duration.ofMinutes(1)),
+                redis, container);
+        cache.listen();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void savedItemIsInsertedInPlaceWithoutReload() {
+        load(post(3, 30), post(2, 20), post(1, 10));
+        when(repo.findByKeys(any(), any())).thenReturn(Flux.just(post(4, 40)));
+
+        cache.itemSaved(FeedType.POST, 4);
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(cache.loaded()));
+        cache.window().block();
+        verify(engine, times(1)).page(any(), anyInt(), anyLong(), anyInt());
+    }
+
+    @Test
+    void editedItemKeepsItsPosition() {
+        load(post(3, 30), post(2, 20), post(1, 10));
+        final FeedItemRow edited = new FeedItemRow(2L, "POST", 1L, "edited", null, T0.plusSeconds(20), true);
+        when(repo.findByKeys(any(), any())).thenReturn(Flux.just(edited));
+
+        cache.itemSaved(FeedType.POST, 2);
+
+        final FeedHeadCache.Head head = cache.loaded();
+        assertEquals(List.of(3L, 2L, 1L), ids(head));
+        assertEquals("edited", head.rows().get(1).content());
+    }
+
+    @Test
+    void deletedItemIsRemovedInPlace() {
+        load(post(4, 40), photo(4, 40), post(3, 30), post(2, 20));
+
+        cache.itemDeleted(FeedType.PHOTO, 4);
+
+        final FeedHeadCache.Head head = cache.loaded();
+        assertEquals(List.of(4L, 3L, 2L), ids(head));
+        assertEquals("POST", head.rows().get(0).feedType());
+    }
+
+    @Test
+    void fullWindowIsTrimmedToHeadSize() {
+        load(post(4, 40), post(3, 30), post(2, 20), post(1, 10));
+        when(repo.findByKeys(any(), any())).thenReturn(Flux.just(post(5, 50)));
+
+        cache.itemSaved(FeedType.POST, 5);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L), ids(cache.loaded()));
+    }
+
+    @Test
+    void itemBelowTailOfIncompleteWindowIsNotInserted() {
+        load(post(5, 50), post(4, 40), post(3, 30), post(2, 20));
+        when(repo.findByKeys(any(), any())).thenReturn(Flux.just(post(1, 10)));
+
+        cache.itemSaved(FeedType.POST, 1);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L), ids(cache.loaded()));
+    }
+
+    @Test
+    void windowDrainedByDeletesIsReset() {
+        load(post(4, 40), post(3, 30), post(2, 20), post(1, 10));
+
+        cache.itemDeleted(FeedType.POST, 4);
+        assertNotNull(cache.loaded());
+        cache.itemDeleted(FeedType.POST, 3);
+        assertNotNull(cache.loaded());
+        cache.itemDeleted(FeedType.POST, 2);
+
+        assertNull(cache.loaded());
+    }
+
+    @Test
+    void loadStartedBeforePatchDoesNotInstallStaleWindow() {
+        final Sinks.Many<FeedItemRow> slow = Sinks.many().unicast().onBackpressureBuffer();
+        when(engine.page(any(), anyInt(), anyLong(), anyInt()))
+                .thenReturn(slow.asFlux())
+                .thenReturn(Flux.just(post(3, 30), post(1, 10)));
+
+        final Mono<FeedHeadCache.Head> first = cache.window();
+        final FeedHeadCache.Head[] seen = new FeedHeadCache.Head[1];
+        first.subscribe(h -> seen[0] = h);
+
+        cache.itemDeleted(FeedType.POST, 2);
+        slow.tryEmitNext(post(3, 30));
+        slow.tryEmitNext(post(2, 20));
+        slow.tryEmitNext(post(1, 10));
+        slow.tryEmitComplete();
+
+        assertEquals(List.of(3L, 2L, 1L), ids(seen[0]));
+        assertNull(cache.loaded());
+        assertEquals(List.of(3L, 1L), ids(cache.window().block()));
+        verify(engine, times(2)).page(any(), anyInt(), anyLong(), anyInt());
+    }
+
+    private void load(FeedItemRow... rows) {
+        when(engine.page(any(), anyInt(), anyLong(), anyInt())).thenReturn(Flux.fromArray(rows));
+        final FeedHeadCache.Head head = cache.window().block();
+        assertEquals(Arrays.stream(rows).map(FeedItemRow::id).toList(), ids(head));
+    }
+
+    private static List<Long> ids(FeedHeadCache.Head head) {
+        return head.rows().stream().map(FeedItemRow::id).toList();
+    }
+
+    private static FeedItemRow post(long id, long second) {
+        return new FeedItemRow(id, "POST", 1L, "post " + id, null, T0.plusSeconds(second), false);
+    }
+
+    private static FeedItemRow photo(long id, long second) {
+        return new FeedItemRow(id, "PHOTO", 1L, null, "/img/" + id, T0.plusSeconds(second), false);
+    }
+}
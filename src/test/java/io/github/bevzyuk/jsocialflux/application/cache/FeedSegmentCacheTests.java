@@ -0,0 +1,153 @@
+package io.github.bevzyuk.jsocialflux.application.cache;
+
+import io.github.bevzyuk.jsocialflux.config.FeedProperties;
+import io.github.bevzyuk.jsocialflux.infrastructure.persistence.repository.FeedRepository;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemDTO.FeedType;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedItemRow;
+import io.github.bevzyuk.jsocialflux.web.dto.feed.FeedRowPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Патчі {@link FeedSegmentCache} через зворотний індекс: Redis підміняється синком, куди публікація
+ * одразу повертає патч, тож він застосовується синхронно.
+ */
+class FeedSegmentCacheTests {
+
+    private static final int SIZE = 2;
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final FeedRepository repo = mock(FeedRepository.class);
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveRedisMessageListenerContainer container = mock(ReactiveRedisMessageListenerContainer.class);
+    private final Sinks.Many<ReactiveSubscription.Message<String, String>> channel = Sinks.many().multicast().directBestEffort();
+
+    private FeedSegmentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(container.receive(any(ChannelTopic.class))).thenReturn(channel.asFlux());
+        when(redis.convertAndSend(eq(FeedSegmentCache.CHANNEL), anyString())).thenAnswer(inv -> {
+            channel.tryEmitNext(new ReactiveSubscription.ChannelMessage<>(FeedSegmentCache.CHANNEL, inv.getArgument(1)));
+            return Mono.just(1L);
+        });
+        cache = new FeedSegmentCache(repo, redis, container,
+                new FeedProperties(100, 100, 1000, FeedProperties.Engine.TABLE, 4, 100, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry());
+        cache.listen();
+
+        // елемент POST 3 лежить у двох сегментах: одна й та сама межа курсора з різним розміром сторінки
+        put(50, post(4, 40), post(3, 30), post(2, 20));
+        cache.put(T0.plusSeconds(50).toEpochMilli(), 2, 0, SIZE + 1, FeedRowPage.of(List.of(post(4, 40), post(3, 30)), SIZE + 1));
+        put(25, post(2, 20), post(1, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void deleteRemovesItemFromEverySegmentHoldingIt() {
+        cache.itemDeleted(FeedType.POST, 3);
+
+        assertEquals(List.of(4L), ids(find(50, SIZE)));
+        assertEquals(List.of(4L), ids(find(50, SIZE + 1)));
+        assertEquals(List.of(2L, 1L), ids(find(25, SIZE)));
+        assertTrue(find(50, SIZE).hasNext());
+    }
+
+    @Test
+    void deleteOfPhotoKeepsPostWithSameId() {
+        put(15, post(1, 10), photo(1, 10));
+
+        cache.itemDeleted(FeedType.PHOTO, 1);
+
+        assertEquals(List.of("POST"), find(15, SIZE).rows().stream().map(FeedItemRow::feedType).toList());
+        assertEquals(List.of(2L, 1L), ids(find(25, SIZE)));
+    }
+
+    @Test
+    void editReplacesItemInItsSegmentsOnly() {
+        final FeedItemRow edited = new FeedItemRow(3L, "POST", 1L, "edited", null, T0.plusSeconds(30), true);
+        when(repo.findByKeys(any(), any())).thenReturn(Flux.just(edited));
+
+        cache.itemEdited(FeedType.POST, 3);
+
+        assertEquals("edited", find(50, SIZE).rows().get(1).content());
+        assertEquals("edited", find(50, SIZE + 1).rows().get(1).content());
+        assertEquals(List.of("post 2", "post 1"), find(25, SIZE).rows().stream().map(FeedItemRow::content).toList());
+    }
+
+    @Test
+    void editOfItemGoneFromDatabaseRemovesIt() {
+        when(repo.findByKeys(any(), any())).thenReturn(Flux.empty());
+
+        cache.itemEdited(FeedType.POST, 3);
+
+        assertEquals(List.of(4L), ids(find(50, SIZE)));
+        assertEquals(List.of(4L), ids(find(50, SIZE + 1)));
+        assertEquals(List.of(2L, 1L), ids(find(25, SIZE)));
+    }
+
+    @Test
+    void editOfUncachedItemSkipsDatabase() {
+        cache.itemEdited(FeedType.POST, 99);
+
+        verify(repo, never()).findByKeys(any(), any());
+    }
+
+    @Test
+    void replacedSegmentIsUnindexed() {
+        put(50, post(4, 40));
+        cache.put(T0.plusSeconds(50).toEpochMilli(), 2, 0, SIZE + 1, FeedRowPage.of(List.of(post(4, 40)), SIZE + 1));
+
+        cache.itemEdited(FeedType.POST, 3);
+
+        verify(repo, never()).findByKeys(any(), any());
+    }
+
+    /** Сегмент розміром {@link #SIZE} за межею {@code second}; зайвий рядок означає наступну сторінку. */
+    private void put(long second, FeedItemRow... rows) {
+        cache.put(T0.plusSeconds(second).toEpochMilli(), 2, 0, SIZE, FeedRowPage.of(List.of(rows), SIZE));
+    }
+
+    private FeedRowPage find(long second, int size) {
+        return cache.find(T0.plusSeconds(second).toEpochMilli(), 2, 0, size);
+    }
+
+    private static List<Long> ids(FeedRowPage page) {
+        return page.rows().stream().map(FeedItemRow::id).toList();
+    }
+
+    private static FeedItemRow post(long id, long second) {
+        return new FeedItemRow(id, "POST", 1L, "post " + id, null, T0.plusSeconds(second), false);
+    }
+
+    private static FeedItemRow photo(long id, long second) {
+        return new FeedItemRow(id, "PHOTO", 1L, null, "/img/" + id, T0.plusSeconds(second), false);
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.bevzyuk.jsocialflux.application.service;
+
+import io.github.bevzyuk.jsocialflux.config.ChatProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Злиття розсилок прев'ю по чату в {@link PreviewFanout}: розсилка тримається «воротами», поки тест
+ * не відпустить їх, тож видно, що чекає в слоті чату, а що вже виконується.
+ */
+class PreviewFanoutTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    private PreviewFanout fanout;
+
+    @BeforeEach
+    void setUp() {
+        fanout = new PreviewFanout(new ChatProperties(128, Duration.ofMillis(2), 8192, 4, Duration.ofMillis(500),
+                3, Duration.ofHours(6), 0, 0, 1, Duration.ofDays(30)), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanout.stop();
+    }
+
+    @Test
+    void latestPendingPreviewWinsWhileChatIsBeingSent() {
+        final Sinks.Empty<Void> gate = Sinks.empty();
+        fanout.submit(1L, work("1a", gate.asMono()));
+        fanout.submit(1L, work("1b", Mono.empty()));
+        fanout.submit(1L, work("1c", Mono.empty()));
+
+        assertEquals(List.of("1a"), started);
+        assertEquals(1.0, counter("chat.preview.fanout.superseded"));
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of("1a", "1c"), started);
+        assertEquals(0.0, gauge("chat.preview.fanout.pending"));
+    }
+
+    @Test
+    void queuedChatSendsOnlyItsLatestPreview() {
+        final Sinks.Empty<Void> gate = Sinks.empty();
+        fanout.submit(1L, work("1a", gate.asMono()));
+        fanout.submit(2L, work("2a", Mono.empty()));
+        fanout.submit(2L, work("2b", Mono.empty()));
+
+        assertEquals(List.of("1a"), started);
+        assertEquals(2.0, gauge("chat.preview.fanout.pending"));
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of("1a", "2b"), started);
+    }
+
+    @Test
+    void failedSendDoesNotBlockNextPreviewOfSameChat() {
+        fanout.submit(1L, work("1a", Mono.error(new IllegalStateException("boom"))));
+        fanout.submit(1L, work("1b", Mono.empty()));
+
+        assertEquals(List.of("1a", "1b"), started);
+        assertEquals(1.0, counter("chat.preview.fanout.failed"));
+        assertEquals(0.0, gauge("chat.preview.fanout.pending"));
+    }
+
+    private Mono<Void> work(String name, Mono<Void> result) {
+        return Mono.defer(() -> {
+            started.add(name);
+            return result;
+        });
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
@@ -0,0 +1,277 @@
+package io.github.bevzyuk.jsocialflux.config.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.github.bevzyuk.jsocialflux.application.service.AccessControlService;
+import io.github.bevzyuk.jsocialflux.application.service.PresenceService;
+import io.github.bevzyuk.jsocialflux.application.service.TimelineFanoutService;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.GroupPreviewEvent;
+import io.github.bevzyuk.jsocialflux.web.dto.chat.response.ChatViewDTO;
+import io.github.bevzyuk.jsocialflux.web.dto.message.response.MessageDTO;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.HandshakeInfo;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Алокації та пропускна здатність доставки через справжні {@link ChatWsHandler} і {@link PreviewHub}:
+ * Redis підміняється синком з байтами, як їх віддає контейнер, а сесії — заглушкою {@link WebSocketSession},
+ * що рахує кадри. Усе виконується синхронно на потоці публікації, тож алокації видно на ньому.
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class WsDeliveryAllocationBenchmarkTests {
+
+    private static final int MESSAGES = Integer.getInteger("bench.messages", 50_000);
+    private static final int PREVIEWS = Integer.getInteger("bench.previews", 10_000);
+    private static final int SESSIONS = Integer.getInteger("bench.sessions", 50);
+    private static final long CHAT_ID = 1L;
+
+    private final ObjectMapper om = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final DataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<String, Sinks.Many<ReactiveSubscription.Message<ByteBuffer, ByteBuffer>>> redis = new ConcurrentHashMap<>();
+    private final List<StubSession> sessions = new ArrayList<>();
+    private final Disposable.Composite running = Disposables.composite();
+    private PreviewHub previewHub;
+
+    @BeforeEach
+    void connect() {
+        ReactiveRedisMessageListenerContainer container = mock(ReactiveRedisMessageListenerContainer.class);
+        doAnswer(inv -> {
+            Iterable<? extends Topic> topics = inv.getArgument(0);
+            return Flux.merge(StreamSupport.stream(topics.spliterator(), false)
+                    .map(t -> channel(t.getTopic()).asFlux())
+                    .toList());
+        }).when(container).receive(ArgumentMatchers.<Iterable<? extends Topic>>any(), any(), any());
+
+        AccessControlService access = mock(AccessControlService.class);
+        when(access.assertCanSubscribeChannel(anyString(), anyString())).thenReturn(Mono.empty());
+        PresenceService presence = mock(PresenceService.class);
+        when(presence.touch(anyString())).thenReturn(Mono.empty());
+
+        previewHub = new PreviewHub(container, om);
+        previewHub.listen();
+        ChatWsHandler handler = new ChatWsHandler(container, access, mock(TimelineFanoutService.class),
+                previewHub, new FeedHub(container, om), presence, mock(RealtimeEvents.class), om);
+
+        for (int i = 0; i < SESSIONS; i++) {
+            StubSession s = new StubSession("u" + i, List.of("chat:" + CHAT_ID, "user:u" + i + ":preview"));
+            sessions.add(s);
+            running.add(handler.handle(s).subscribe());
+        }
+    }
+
+    @AfterEach
+    void disconnect() {
+        running.dispose();
+        previewHub.stop();
+    }
+
+    /** Дві події різного розміру: якщо тіло копіюється в кожну сесію, алокації на доставку ростуть разом із ним. */
+    @Test
+    void chatMessagesShareOneBufferAcrossSessions() throws Exception {
+        byte[] small = message("Привіт! Як справи? Зустрінемось о сьомій біля входу.");
+        byte[] large = message("Привіт! Як справи? Зустрінемось о сьомій біля входу. ".repeat(40));
+        Sinks.Many<ReactiveSubscription.Message<ByteBuffer, ByteBuffer>> chat = channel("chat:" + CHAT_ID);
+
+        Result rs = measure(MESSAGES, () -> chat.tryEmitNext(
+                new ReactiveSubscription.ChannelMessage<>(bytes("chat:" + CHAT_ID), ByteBuffer.wrap(small).asReadOnlyBuffer())));
+        Result rl = measure(MESSAGES, () -> chat.tryEmitNext(
+                new ReactiveSubscription.ChannelMessage<>(bytes("chat:" + CHAT_ID), ByteBuffer.wrap(large).asReadOnlyBuffer())));
+
+        report("chat message", small.length, rs);
+        report("chat message", large.length, rl);
+        assertEquals(2L * (MESSAGES + MESSAGES / 10) * SESSIONS, frames());
+        assertTrue(rl.bytesPerDelivery() - rs.bytesPerDelivery() < (large.length - small.length) / 10.0,
+                "тіло події не має копіюватись для кожної сесії");
+    }
+
+    @Test
+    void groupPreviewsAreEncodedOncePerUnreadCount() throws Exception {
+        Map<String, Integer> unread = new HashMap<>();
+        for (int i = 0; i < SESSIONS; i++) unread.put("u" + i, i % 5);
+        ChatViewDTO view = new ChatViewDTO(CHAT_ID, "Група", null, true, "Останнє повідомлення", Instant.now(), null);
+        byte[] payload = om.writeValueAsBytes(new GroupPreviewEvent(unread.keySet(), view, unread));
+        Sinks.Many<ReactiveSubscription.Message<ByteBuffer, ByteBuffer>> previews = channel(RedisRealtimeEvents.CH_GROUP_PREVIEW);
+
+        Result r = measure(PREVIEWS, () -> previews.tryEmitNext(
+                new ReactiveSubscription.ChannelMessage<>(bytes(RedisRealtimeEvents.CH_GROUP_PREVIEW), ByteBuffer.wrap(payload))));
+
+        report("group preview", payload.length, r);
+        assertEquals((long) (PREVIEWS + PREVIEWS / 10) * SESSIONS, frames());
+        assertTrue(sessions.get(3).last.contains("\"unreadCount\":3"), "кожна сесія отримує свій лічильник");
+    }
+
+    private byte[] message(String content) throws Exception {
+        return om.writeValueAsBytes(new MessageDTO(42L, CHAT_ID, content, Instant.now(), "author_42", "https://img/a42.png"));
+    }
+
+    private Result measure(int events, Runnable publish) {
+        for (int i = 0; i < events / 10; i++) publish.run(); // прогрів JIT
+
+        long bytesBefore = allocated();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < events; i++) publish.run();
+        long nanos = System.nanoTime() - t0;
+        long bytes = allocated() - bytesBefore;
+
+        long deliveries = (long) events * SESSIONS;
+        return new Result(bytes / (double) deliveries, deliveries * 1e9 / nanos);
+    }
+
+    private void report(String what, int payloadBytes, Result r) {
+        System.out.printf("""
+                [BENCH] %s: %d sessions, payload %d bytes
+                [BENCH]   %.1f bytes/delivery, %.0f deliveries/s
+                %n""", what, SESSIONS, payloadBytes, r.bytesPerDelivery(), r.deliveriesPerSecond());
+    }
+
+    private long frames() {
+        return sessions.stream().mapToLong(s -> s.frames.get()).sum();
+    }
+
+    private Sinks.Many<ReactiveSubscription.Message<ByteBuffer, ByteBuffer>> channel(String name) {
+        return redis.computeIfAbsent(name, n -> Sinks.many().multicast().directBestEffort());
+    }
+
+    private static ByteBuffer bytes(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long allocated() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    private record Result(double bytesPerDelivery, double deliveriesPerSecond) {}
+
+    /** Сесія без мережі: одразу підписується на канали й читає вихідні кадри без затримок. */
+    private final class StubSession implements WebSocketSession {
+
+        private final String username;
+        private final List<String> channels;
+        private final AtomicLong frames = new AtomicLong();
+        private volatile String last = "";
+
+        StubSession(String username, List<String> channels) {
+            this.username = username;
+            this.channels = channels;
+        }
+
+        @Override
+        public String getId() {
+            return username;
+        }
+
+        @Override
+        public HandshakeInfo getHandshakeInfo() {
+            Principal principal = () -> username;
+            return new HandshakeInfo(URI.create("ws://localhost/ws"), new HttpHeaders(), Mono.just(principal), null);
+        }
+
+        @Override
+        public DataBufferFactory bufferFactory() {
+            return factory;
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return Map.of();
+        }
+
+        @Override
+        public Flux<WebSocketMessage> receive() {
+            return Flux.fromIterable(channels)
+                    .map(ch -> textMessage("{\"type\":\"SUB\",\"channel\":\"" + ch + "\"}"))
+                    .concatWith(Flux.never());
+        }
+
+        @Override
+        public Mono<Void> send(Publisher<WebSocketMessage> messages) {
+            return Flux.from(messages)
+                    .doOnNext(m -> {
+                        // розбирається лише кожен тисячний кадр, щоб перевірка не спотворювала вимір
+                        if (frames.incrementAndGet() % 1000 == 0) last = m.getPayloadAsText();
+                    })
+                    .then();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public Mono<Void> close(CloseStatus status) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<CloseStatus> closeStatus() {
+            return Mono.never();
+        }
+
+        @Override
+        public WebSocketMessage textMessage(String payload) {
+            return new WebSocketMessage(WebSocketMessage.Type.TEXT, factory.wrap(payload.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public WebSocketMessage binaryMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(WebSocketMessage.Type.BINARY, payloadFactory.apply(factory));
+        }
+
+        @Override
+        public WebSocketMessage pingMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(WebSocketMessage.Type.PING, payloadFactory.apply(factory));
+        }
+
+        @Override
+        public WebSocketMessage pongMessage(Function<DataBufferFactory, DataBuffer> payloadFactory) {
+            return new WebSocketMessage(WebSocketMessage.Type.PONG, payloadFactory.apply(factory));
+        }
+    }
+}
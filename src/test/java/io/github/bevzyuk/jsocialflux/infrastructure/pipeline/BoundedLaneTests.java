@@ -0,0 +1,142 @@
+package io.github.bevzyuk.jsocialflux.infrastructure.pipeline;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Переповнення, помилки обробника й перепідписка {@link BoundedLane}. Обробник тримається «воротами»,
+ * поки тест не відпустить їх, тож глибина черги передбачувана: одна пачка в роботі, решта чекає.
+ */
+class BoundedLaneTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> flushed = new CopyOnWriteArrayList<>();
+    private final List<Integer> lost = new CopyOnWriteArrayList<>();
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    private BoundedLane<Integer> lane;
+
+    @AfterEach
+    void tearDown() {
+        lane.dispose();
+    }
+
+    @Test
+    void rejectRefusesNewItemWhenQueueIsFull() {
+        lane = lane(BoundedLane.Overflow.REJECT, held(), lost::add);
+
+        assertTrue(lane.offer(1));
+        assertTrue(lane.offer(2));
+        assertTrue(lane.offer(3));
+        assertFalse(lane.offer(4));
+
+        assertEquals(2, lane.depth());
+        assertEquals(List.of(), lost);
+        assertEquals(1.0, dropped());
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of(1, 2, 3), flushed);
+    }
+
+    @Test
+    void dropOldestEvictsHeadOfQueueToLost() {
+        lane = lane(BoundedLane.Overflow.DROP_OLDEST, held(), lost::add);
+
+        assertTrue(lane.offer(1));
+        assertTrue(lane.offer(2));
+        assertTrue(lane.offer(3));
+        assertTrue(lane.offer(4));
+
+        assertEquals(List.of(2), lost);
+        assertEquals(1.0, dropped());
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of(1, 3, 4), flushed);
+    }
+
+    @Test
+    void failedBatchGoesToLostAndLaneKeepsWorking() {
+        lane = lane(BoundedLane.Overflow.REJECT, b -> {
+            if (b.contains(2)) return Mono.error(new IllegalStateException("boom"));
+            flushed.addAll(b);
+            return Mono.empty();
+        }, lost::add);
+
+        lane.offer(1);
+        lane.offer(2);
+        lane.offer(3);
+
+        assertEquals(List.of(1, 3), flushed);
+        assertEquals(List.of(2), lost);
+        assertEquals(1.0, dropped());
+    }
+
+    @Test
+    void crashedPipelineResubscribesAndHandsOverTakenItems() {
+        final AtomicBoolean crash = new AtomicBoolean(true);
+        // Error з обробника втрачених не ловиться discard і валить конвеєр, а не лише пачку
+        lane = lane(BoundedLane.Overflow.REJECT, b -> {
+            if (b.contains(1)) return Mono.error(new IllegalStateException("boom"));
+            flushed.addAll(b);
+            return Mono.empty();
+        }, item -> {
+            lost.add(item);
+            if (crash.getAndSet(false)) throw new AssertionError("lost handler failed");
+        });
+
+        lane.offer(1);
+        assertTrue(lane.offer(2));
+
+        assertEquals(List.of(1, 1), lost);
+        assertEquals(2.0, dropped());
+        assertEquals(List.of(2), flushed);
+    }
+
+    @Test
+    void closeDrainsQueueAndRejectsNewItems() {
+        lane = lane(BoundedLane.Overflow.REJECT, held(), lost::add);
+        lane.offer(1);
+        lane.offer(2);
+
+        lane.close();
+        assertFalse(lane.offer(3));
+
+        gate.tryEmitEmpty();
+        assertEquals(List.of(1, 2), flushed);
+        assertEquals(List.of(), lost);
+    }
+
+    /** Місткість 2, по одному елементу в пачці, одна пачка одночасно — обробник бере лише перший елемент. */
+    private BoundedLane<Integer> lane(BoundedLane.Overflow overflow,
+                                      Function<List<Integer>, Mono<Void>> flush,
+                                      Consumer<Integer> lostItems) {
+        return new BoundedLane<>("test", new BoundedLane.Spec(2, 1, Duration.ZERO, 1, overflow),
+                meterRegistry, flush, lostItems);
+    }
+
+    private Function<List<Integer>, Mono<Void>> held() {
+        return b -> {
+            flushed.addAll(b);
+            return gate.asMono();
+        };
+    }
+
+    private double dropped() {
+        return meterRegistry.get("lane.dropped").tag("lane", "test").counter().count();
+    }
+}